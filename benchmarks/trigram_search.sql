@@ -0,0 +1,154 @@
+-- Benchmark: LOWER(x) LIKE '%term%' search with and without pg_trgm GIN indexes.
+--
+-- Seeds 100k users and 100k posts (plus categories) in an isolated schema,
+-- runs the author search, the category filter and the ranked user search
+-- before and after creating the indexes from V3__trigram_search_indexes.sql,
+-- and prints EXPLAIN ANALYZE plans with execution times.
+--
+-- Usage (against a scratch database, never production):
+--   psql "$BENCH_DATABASE_URL" -f benchmarks/trigram_search.sql
+--
+-- The schema is dropped at the end.
+
+\timing on
+\set ON_ERROR_STOP on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP SCHEMA IF EXISTS trgm_bench CASCADE;
+CREATE SCHEMA trgm_bench;
+SET search_path = trgm_bench, public;
+
+CREATE TABLE users (
+    id UUID PRIMARY KEY,
+    username VARCHAR(30),
+    names VARCHAR(50) NOT NULL,
+    last_names VARCHAR(255),
+    avatar VARCHAR(500)
+);
+
+CREATE TABLE category (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE post (
+    id UUID PRIMARY KEY,
+    text_content VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    like_count INTEGER NOT NULL DEFAULT 0,
+    user_id UUID NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE post_has_category (
+    post_id UUID NOT NULL REFERENCES post (id),
+    category_id INTEGER NOT NULL REFERENCES category (id),
+    PRIMARY KEY (post_id, category_id)
+);
+
+-- 100k users with pseudo-random Chilean-looking names
+INSERT INTO users (id, username, names, last_names)
+SELECT gen_random_uuid(),
+       'user' || g || substr(md5(g::text), 1, 6),
+       (ARRAY['Juan', 'María', 'José', 'Francisca', 'Diego', 'Camila', 'Matías', 'Valentina'])[1 + g % 8]
+           || ' ' || substr(md5((g * 7)::text), 1, 5),
+       (ARRAY['González', 'Muñoz', 'Rojas', 'Díaz', 'Pérez', 'Soto', 'Contreras', 'Silva'])[1 + g % 8]
+           || ' ' || substr(md5((g * 13)::text), 1, 5)
+FROM generate_series(1, 100000) AS g;
+
+-- 2k categories
+INSERT INTO category (name)
+SELECT 'cat' || g || substr(md5(g::text), 1, 8)
+FROM generate_series(1, 2000) AS g;
+
+-- 100k posts spread across users
+INSERT INTO post (id, text_content, created_at, like_count, user_id)
+SELECT gen_random_uuid(),
+       'post ' || g,
+       now() - (g || ' minutes')::interval,
+       g % 50,
+       u.id
+FROM generate_series(1, 100000) AS g
+JOIN LATERAL (SELECT id FROM users OFFSET (g * 31) % 100000 LIMIT 1) u ON true;
+
+-- Two categories per post
+INSERT INTO post_has_category (post_id, category_id)
+SELECT p.id, c.id
+FROM (SELECT id, row_number() OVER () AS rn FROM post) p
+JOIN category c ON c.id IN (1 + p.rn % 2000, 1 + (p.rn * 7) % 2000)
+ON CONFLICT DO NOTHING;
+
+CREATE INDEX ON post (created_at DESC, id DESC);
+CREATE INDEX ON post (user_id);
+CREATE INDEX ON post_has_category (category_id, post_id);
+
+ANALYZE;
+
+\echo '=== Author filter, no trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM post p JOIN users a ON a.id = p.user_id
+WHERE lower(a.username) LIKE '%' || lower('3a7f') || '%'
+   OR lower(a.names) LIKE '%' || lower('3a7f') || '%'
+   OR lower(a.last_names) LIKE '%' || lower('3a7f') || '%'
+ORDER BY p.created_at DESC, p.id DESC
+LIMIT 21;
+
+\echo '=== Category filter, no trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM post p
+WHERE EXISTS (SELECT 1 FROM post_has_category phc JOIN category c ON c.id = phc.category_id
+              WHERE phc.post_id = p.id AND lower(c.name) LIKE '%' || lower('9b2') || '%')
+ORDER BY p.created_at DESC, p.id DESC
+LIMIT 21;
+
+\echo '=== Ranked user search, no trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.username FROM users u
+WHERE lower(u.username) LIKE '%' || lower('user42') || '%'
+   OR lower(u.names) LIKE '%' || lower('user42') || '%'
+   OR lower(u.last_names) LIKE '%' || lower('user42') || '%'
+   OR lower(u.username) % lower('user42')
+ORDER BY GREATEST(similarity(lower(u.username), lower('user42')),
+                  similarity(lower(u.names), lower('user42')),
+                  similarity(lower(COALESCE(u.last_names, '')), lower('user42'))) DESC, u.username
+LIMIT 20;
+
+-- Same indexes as V3__trigram_search_indexes.sql
+CREATE INDEX idx_category_name_trgm ON category USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX idx_users_names_trgm ON users USING gin (lower(names) gin_trgm_ops);
+CREATE INDEX idx_users_last_names_trgm ON users USING gin (lower(last_names) gin_trgm_ops);
+
+ANALYZE;
+
+\echo '=== Author filter, trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM post p JOIN users a ON a.id = p.user_id
+WHERE lower(a.username) LIKE '%' || lower('3a7f') || '%'
+   OR lower(a.names) LIKE '%' || lower('3a7f') || '%'
+   OR lower(a.last_names) LIKE '%' || lower('3a7f') || '%'
+ORDER BY p.created_at DESC, p.id DESC
+LIMIT 21;
+
+\echo '=== Category filter, trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM post p
+WHERE EXISTS (SELECT 1 FROM post_has_category phc JOIN category c ON c.id = phc.category_id
+              WHERE phc.post_id = p.id AND lower(c.name) LIKE '%' || lower('9b2') || '%')
+ORDER BY p.created_at DESC, p.id DESC
+LIMIT 21;
+
+\echo '=== Ranked user search, trigram index ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.username FROM users u
+WHERE lower(u.username) LIKE '%' || lower('user42') || '%'
+   OR lower(u.names) LIKE '%' || lower('user42') || '%'
+   OR lower(u.last_names) LIKE '%' || lower('user42') || '%'
+   OR lower(u.username) % lower('user42')
+ORDER BY GREATEST(similarity(lower(u.username), lower('user42')),
+                  similarity(lower(u.names), lower('user42')),
+                  similarity(lower(COALESCE(u.last_names, '')), lower('user42'))) DESC, u.username
+LIMIT 20;
+
+RESET search_path;
+DROP SCHEMA trgm_bench CASCADE;
@@ -0,0 +1,74 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ * threeParses is what JwtAuthenticationFilter did before: extractUserId,
+ * extractUsername and extractRoles, each rebuilding the key and the parser and
+ * verifying the HMAC again. verifyOnce is JwtService.verify with the key and
+ * parser built at startup, and verifyCached is the filter path for a token
+ * seen recently (a burst of app requests). Compare the average time and
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtService jwtService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3_600_000, 7_200_000, "calbuco-benchmark");
+        token = jwtService.generateAccessToken(User.builder()
+                .id(UUID.randomUUID())
+                .rut("12345678-5")
+                .username("vecino")
+                .build());
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, new SimpleMeterRegistry(), 10_000, 300);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void threeParses(Blackhole blackhole) {
+        blackhole.consume(UUID.fromString(parseLikeBefore(token).get("userId", String.class)));
+        blackhole.consume(parseLikeBefore(token).get("username", String.class));
+        blackhole.consume((List<String>) parseLikeBefore(token).get("roles"));
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyOnce() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return verifiedTokenCache.verify(token);
+    }
+
+    private static Claims parseLikeBefore(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,127 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old full-resolution decode with the subsampled decode of
+ * ImageCompressionService on a 48-megapixel JPEG.
+ * Run with the gc profiler (configured in build.gradle) and compare
+ * gc.alloc.rate.norm, the bytes allocated per converted image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class ImageDecodeBenchmark {
+
+    private static final int SOURCE_WIDTH = 8000;
+    private static final int SOURCE_HEIGHT = 6000;
+
+    private byte[] photo;
+    private ImageCompressionService compressionService;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedImage source = new BufferedImage(SOURCE_WIDTH, SOURCE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = source.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, Color.ORANGE, SOURCE_WIDTH, SOURCE_HEIGHT, Color.BLUE));
+        g2d.fillRect(0, 0, SOURCE_WIDTH, SOURCE_HEIGHT);
+        g2d.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(source, "jpeg", outputStream);
+        photo = outputStream.toByteArray();
+
+        // Budget large enough for all benchmark threads, so only decoding is measured
+        executor = Executors.newSingleThreadExecutor();
+        DecodeBudget decodeBudget = new DecodeBudget(1024, 60_000);
+        compressionService = new ImageCompressionService(decodeBudget, executor, new SimpleMeterRegistry(),
+                new GifReencoder(decodeBudget, 300, 16, 250),
+                new JpegEncoder("adaptive", 8192, 30720, 92160, 256000, 8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public byte[] fullDecode() throws IOException {
+        // What convertToJPEG did before: decode every source pixel, then scale down
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(photo));
+        BufferedImage target = new BufferedImage(1080, 810, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = target.createGraphics();
+        g2d.drawImage(original, 0, 0, 1080, 810, null);
+        g2d.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(target, "jpeg", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] subsampledDecode() throws IOException {
+        return compressionService.compressImage(UploadBuffer.read(new InMemoryImage(photo)));
+    }
+
+    /**
+     * Minimal MultipartFile over a byte array (spring-test is not on the JMH classpath)
+     */
+    private record InMemoryImage(byte[] bytes) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "image";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "photo.jpg";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/jpeg";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bytes.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return bytes.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
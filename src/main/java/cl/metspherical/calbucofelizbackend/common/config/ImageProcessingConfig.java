@@ -0,0 +1,51 @@
+package cl.metspherical.calbucofelizbackend.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded executor for CPU-bound image compression
+ */
+@Configuration
+public class ImageProcessingConfig {
+
+    /**
+     * One thread per available processor and a bounded queue; work beyond the
+     * queue is rejected instead of piling up. Pool and queue metrics are
+     * published under the "image.compression" executor name.
+     *
+     * @param queueCapacity Maximum number of images waiting for a thread
+     * @param meterRegistry Registry for the executor metrics
+     * @return Monitored executor service
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageCompressionExecutor(
+            @Value("${images.compression.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-compression-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "image.compression", List.of());
+    }
+}
@@ -0,0 +1,54 @@
+package cl.metspherical.calbucofelizbackend.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded executor for BCrypt password verification and hashing,
+ * so a login rush cannot occupy every request thread
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * A fixed pool and a bounded queue; work beyond the queue is rejected and
+     * surfaces as 429. Pool and queue metrics are published under the
+     * "password.hashing" executor name.
+     *
+     * @param threads Number of hashing threads (0 for one per available processor)
+     * @param queueCapacity Maximum number of hashes waiting for a thread
+     * @param meterRegistry Registry for the executor metrics
+     * @return Monitored executor service
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:32}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing", List.of());
+    }
+}
@@ -2,6 +2,7 @@ package cl.metspherical.calbucofelizbackend.common.config;
 
 import cl.metspherical.calbucofelizbackend.features.mediations.websocket.MediationWebSocketHandler;
 import cl.metspherical.calbucofelizbackend.features.mediations.websocket.JwtWebSocketInterceptor;
+import cl.metspherical.calbucofelizbackend.features.posts.websocket.PostStatusWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -15,11 +16,15 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
     private final MediationWebSocketHandler mediationWebSocketHandler;
     private final JwtWebSocketInterceptor jwtWebSocketInterceptor;
+    private final PostStatusWebSocketHandler postStatusWebSocketHandler;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(mediationWebSocketHandler, "/mediation/chat")
                 .setAllowedOrigins("*")
                 .addInterceptors(jwtWebSocketInterceptor);
+        registry.addHandler(postStatusWebSocketHandler, "/posts/status")
+                .setAllowedOrigins("*")
+                .addInterceptors(jwtWebSocketInterceptor);
     }
 }
@@ -0,0 +1,84 @@
+package cl.metspherical.calbucofelizbackend.common.controller;
+
+import cl.metspherical.calbucofelizbackend.common.domain.UploadSession;
+import cl.metspherical.calbucofelizbackend.common.security.utils.SecurityUtils;
+import cl.metspherical.calbucofelizbackend.common.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumable upload endpoints (tus 1.0.0 core protocol plus creation).
+ * POST creates an upload, HEAD reports its offset, PATCH appends a chunk at
+ * that offset and DELETE abandons it. Completed uploads are attached to a post
+ * by passing their IDs as uploadIds when creating it.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, UUID>> createUpload(
+            @RequestHeader(value = UPLOAD_LENGTH, required = false) Long length,
+            @RequestHeader(value = "Upload-Metadata", required = false) String metadata) {
+
+        UUID userId = SecurityUtils.getCurrentUserId();
+        UploadSession session = resumableUploadService.create(userId, length, metadata);
+        return ResponseEntity.created(URI.create("/api/uploads/" + session.getId()))
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, "0")
+                .body(Map.of("uploadId", session.getId()));
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getOffset(@PathVariable UUID id) {
+        UUID userId = SecurityUtils.getCurrentUserId();
+        UploadSession session = resumableUploadService.get(userId, id);
+        return ResponseEntity.ok()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, Long.toString(session.getUploadOffset()))
+                .header(UPLOAD_LENGTH, Long.toString(session.getUploadLength()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    @PatchMapping(value = "/{id}", consumes = "application/offset+octet-stream")
+    public ResponseEntity<Void> appendChunk(
+            @PathVariable UUID id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request) throws IOException {
+
+        UUID userId = SecurityUtils.getCurrentUserId();
+        long newOffset = resumableUploadService.append(userId, id, offset, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, Long.toString(newOffset))
+                .build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteUpload(@PathVariable UUID id) {
+        UUID userId = SecurityUtils.getCurrentUserId();
+        resumableUploadService.delete(userId, List.of(id));
+        return ResponseEntity.noContent()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .build();
+    }
+}
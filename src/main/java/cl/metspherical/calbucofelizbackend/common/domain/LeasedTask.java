@@ -0,0 +1,23 @@
+package cl.metspherical.calbucofelizbackend.common.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row of a table used as a job queue and drained by a LeasedQueueWorker.
+ * Implemented by the Lombok accessors of the entity.
+ */
+public interface LeasedTask {
+
+    UUID getId();
+
+    int getAttempts();
+
+    void setAttempts(int attempts);
+
+    void setNextAttemptAt(LocalDateTime nextAttemptAt);
+
+    void setLockedUntil(LocalDateTime lockedUntil);
+
+    void setLastError(String lastError);
+}
@@ -0,0 +1,37 @@
+package cl.metspherical.calbucofelizbackend.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_fingerprint")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaFingerprint {
+
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "safe")
+    private Boolean safe;
+
+    @Column(name = "url", length = 500)
+    private String url;
+
+    @CreationTimestamp
+    @Column(
+            name = "created_at",
+            nullable = false,
+            updatable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package cl.metspherical.calbucofelizbackend.common.domain;
+
+import cl.metspherical.calbucofelizbackend.common.enums.RevocationScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_token")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    /** jti of the token for TOKEN rows, ID of the user for USER rows */
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "UUID")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 8)
+    private RevocationScope scope;
+
+    @Column(name = "not_before", columnDefinition = "timestamp with time zone")
+    private LocalDateTime notBefore;
+
+    @Column(
+            name = "expires_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime expiresAt;
+
+    @Column(
+            name = "revoked_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,66 @@
+package cl.metspherical.calbucofelizbackend.common.domain;
+
+import cl.metspherical.calbucofelizbackend.common.enums.SmsStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * SMS waiting in the outbox or already delivered
+ */
+@Entity
+@Table(name = "sms_outbox")
+@Getter
+@Setter
+@ToString(exclude = "body")
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SmsMessage implements LeasedTask {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "phone_number", nullable = false, length = 20)
+    private String phoneNumber;
+
+    @Column(name = "body", length = 480)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private SmsStatus status = SmsStatus.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(
+            name = "next_attempt_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until", columnDefinition = "timestamp with time zone")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(
+            name = "created_at",
+            nullable = false,
+            updatable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at", columnDefinition = "timestamp with time zone")
+    private LocalDateTime sentAt;
+}
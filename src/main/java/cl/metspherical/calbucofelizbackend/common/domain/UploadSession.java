@@ -0,0 +1,58 @@
+package cl.metspherical.calbucofelizbackend.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "upload_session")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "UUID")
+    private UUID userId;
+
+    @Column(name = "upload_length", nullable = false)
+    private long uploadLength;
+
+    @Column(name = "upload_offset", nullable = false)
+    @Builder.Default
+    private long uploadOffset = 0;
+
+    @Column(name = "filename", length = 255)
+    private String filename;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(
+            name = "expires_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(
+            name = "created_at",
+            nullable = false,
+            updatable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime createdAt;
+
+    public boolean isComplete() {
+        return uploadOffset == uploadLength;
+    }
+}
@@ -51,6 +51,9 @@ public class User {
     @Column(name = "avatar", length = 500)
     private String avatar;
 
+    @Column(name = "avatar_small", length = 500)
+    private String avatarSmall;
+
     @Column(length = 50, nullable = false)
     private String names;
 
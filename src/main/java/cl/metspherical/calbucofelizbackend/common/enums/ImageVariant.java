@@ -0,0 +1,34 @@
+package cl.metspherical.calbucofelizbackend.common.enums;
+
+/**
+ * Renditions generated for each uploaded image, from smallest to largest
+ * Post images get THUMBNAIL, MEDIUM and FULL; avatars get AVATAR_SMALL and FULL.
+ */
+public enum ImageVariant {
+    AVATAR_SMALL(96, true),
+    THUMBNAIL(320, false),
+    MEDIUM(640, false),
+    FULL(1080, false);
+
+    private final int maxSize;
+    private final boolean square;
+
+    ImageVariant(int maxSize, boolean square) {
+        this.maxSize = maxSize;
+        this.square = square;
+    }
+
+    /**
+     * @return Maximum width and height of the rendition, in pixels
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return true if the rendition is center-cropped to a square
+     */
+    public boolean isSquare() {
+        return square;
+    }
+}
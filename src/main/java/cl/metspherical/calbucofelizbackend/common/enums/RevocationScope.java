@@ -0,0 +1,11 @@
+package cl.metspherical.calbucofelizbackend.common.enums;
+
+/**
+ * What a revoked_token row revokes
+ */
+public enum RevocationScope {
+    /** A single token, identified by its jti */
+    TOKEN,
+    /** Every token of a user issued before a cutoff */
+    USER
+}
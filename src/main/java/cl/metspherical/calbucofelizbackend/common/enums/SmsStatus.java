@@ -0,0 +1,12 @@
+package cl.metspherical.calbucofelizbackend.common.enums;
+
+/**
+ * Delivery state of an outbox SMS. DEAD messages ran out of attempts or were
+ * refused by the gateway and are kept for inspection until pruned.
+ */
+public enum SmsStatus {
+    QUEUED,
+    SENDING,
+    SENT,
+    DEAD
+}
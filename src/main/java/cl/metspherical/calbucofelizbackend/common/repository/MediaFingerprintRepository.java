@@ -0,0 +1,34 @@
+package cl.metspherical.calbucofelizbackend.common.repository;
+
+import cl.metspherical.calbucofelizbackend.common.domain.MediaFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface MediaFingerprintRepository extends JpaRepository<MediaFingerprint, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO media_fingerprint (sha256, safe) VALUES (:sha256, :safe) " +
+            "ON CONFLICT (sha256) DO UPDATE SET safe = EXCLUDED.safe",
+            nativeQuery = true)
+    void upsertVerdict(@Param("sha256") String sha256, @Param("safe") boolean safe);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO media_fingerprint (sha256, url) VALUES (:sha256, :url) " +
+            "ON CONFLICT (sha256) DO UPDATE SET url = EXCLUDED.url",
+            nativeQuery = true)
+    void upsertUrl(@Param("sha256") String sha256, @Param("url") String url);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE media_fingerprint SET url = NULL WHERE url IN (:urls)", nativeQuery = true)
+    void clearUrls(@Param("urls") Collection<String> urls);
+}
@@ -0,0 +1,46 @@
+package cl.metspherical.calbucofelizbackend.common.repository;
+
+import cl.metspherical.calbucofelizbackend.common.domain.SmsMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SmsOutboxRepository extends JpaRepository<SmsMessage, UUID> {
+
+    /**
+     * Locks the messages that are due: queued messages whose next attempt has
+     * come and messages being sent whose lease expired. Rows locked by another
+     * instance are skipped, so concurrent dispatchers never claim the same message.
+     * Must run inside a transaction; the locks are held until it commits.
+     *
+     * @param limit Maximum number of messages to lock
+     * @return Due messages, oldest first
+     */
+    @Query(value = "SELECT * FROM sms_outbox " +
+            "WHERE (status = 'QUEUED' AND next_attempt_at <= now()) " +
+            "OR (status = 'SENDING' AND locked_until < now()) " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<SmsMessage> lockDueMessages(@Param("limit") int limit);
+
+    /**
+     * Deletes sent and dead messages created before a cutoff
+     *
+     * @param cutoff Messages created before this time are deleted
+     * @return Number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SmsMessage m WHERE m.status IN ('SENT', 'DEAD') AND m.createdAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
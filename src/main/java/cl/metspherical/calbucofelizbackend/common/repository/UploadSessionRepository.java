@@ -0,0 +1,40 @@
+package cl.metspherical.calbucofelizbackend.common.repository;
+
+import cl.metspherical.calbucofelizbackend.common.domain.UploadSession;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    /**
+     * Commits appended bytes, only if no other request moved the offset meanwhile
+     *
+     * @param id ID of the upload session
+     * @param expected Offset the bytes were appended at
+     * @param offset New offset
+     * @param expiresAt New expiry of the session
+     * @return 1 if the offset was committed, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.uploadOffset = :offset, s.expiresAt = :expiresAt " +
+            "WHERE s.id = :id AND s.uploadOffset = :expected")
+    int advance(@Param("id") UUID id,
+                @Param("expected") long expected,
+                @Param("offset") long offset,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime now, Limit limit);
+
+    long countByUserIdAndExpiresAtAfter(UUID userId, LocalDateTime now);
+}
@@ -2,6 +2,7 @@ package cl.metspherical.calbucofelizbackend.common.repository;
 
 import cl.metspherical.calbucofelizbackend.common.enums.RoleName;
 import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResultProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,15 +17,39 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     Optional<User> findByRut(String rut);
 
-    @Query("SELECT DISTINCT u FROM User u " +
-           "LEFT JOIN FETCH u.posts " +
-           "WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(u.names) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(u.lastNames) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<User> findUsersWithPostsAndLikesBySearchTerm(@Param("searchTerm") String searchTerm);
+    /**
+     * Finds a user by RUT together with its roles, in a single query
+     *
+     * @param rut RUT of the user
+     * @return User with its roles initialized
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.rut = :rut")
+    Optional<User> findByRutWithRoles(@Param("rut") String rut);
 
-    @Query("SELECT CAST(COUNT(pl) AS INTEGER) FROM PostLike pl WHERE pl.post.author.id = :userId")
-    Integer countLikesByUserId(@Param("userId") UUID userId);
+    /**
+     * Searches users by username, names or lastNames using pg_trgm.
+     * Substring matches and fuzzy (trigram similarity) matches are both served by
+     * the GIN trigram indexes, and results are ranked by their best similarity.
+     *
+     * @param searchTerm Term to search for
+     * @param limit Maximum number of users to return
+     * @return Ranked users with their post count and total likes
+     */
+    @Query(value = "SELECT u.username AS username, u.avatar AS avatar, " +
+           "CAST((SELECT COALESCE(SUM(p.like_count), 0) FROM post p WHERE p.user_id = u.id AND p.status = 'PUBLISHED') AS INTEGER) AS totalLikes, " +
+           "CAST((SELECT COUNT(*) FROM post p WHERE p.user_id = u.id AND p.status = 'PUBLISHED') AS INTEGER) AS postCount " +
+           "FROM users u " +
+           "WHERE lower(u.username) LIKE ('%' || lower(:searchTerm) || '%') " +
+           "OR lower(u.names) LIKE ('%' || lower(:searchTerm) || '%') " +
+           "OR lower(u.last_names) LIKE ('%' || lower(:searchTerm) || '%') " +
+           "OR lower(u.username) % lower(:searchTerm) " +
+           "ORDER BY GREATEST(" +
+           "similarity(lower(u.username), lower(:searchTerm)), " +
+           "similarity(lower(u.names), lower(:searchTerm)), " +
+           "similarity(lower(COALESCE(u.last_names, '')), lower(:searchTerm))) DESC, u.username " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<UserSearchResultProjection> searchUsersRanked(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
 
     @Query("SELECT u FROM User u " +
            "JOIN u.roles r " +
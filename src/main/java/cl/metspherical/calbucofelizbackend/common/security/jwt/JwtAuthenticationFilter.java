@@ -1,6 +1,7 @@
 package cl.metspherical.calbucofelizbackend.common.security.jwt;
 
-import cl.metspherical.calbucofelizbackend.common.security.service.JwtService;
+import cl.metspherical.calbucofelizbackend.common.security.service.TokenRevocationService;
+import cl.metspherical.calbucofelizbackend.common.security.service.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,8 +13,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -22,7 +21,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -40,17 +40,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(BEARER_PREFIX.length());
 
         try {
-            UUID userId = jwtService.extractUserId(jwt);
-            String username = jwtService.extractUsername(jwt);
-            List<String> roles = jwtService.extractRoles(jwt);
+            // One parse verifies the signature and reads every claim; repeated tokens hit the cache
+            JwtPrincipal principal = verifiedTokenCache.verify(jwt);
 
-            JwtAuthenticationToken authToken = new JwtAuthenticationToken(
-                    userId,
-                    username,
-                    roles != null ? roles : List.of()
-            );
+            // Checked on every request, also for cached tokens; in-memory only
+            if (tokenRevocationService.isRevoked(principal)) {
+                SecurityContextHolder.clearContext();
+            } else {
+                JwtAuthenticationToken authToken = new JwtAuthenticationToken(
+                        principal.userId(),
+                        principal.username(),
+                        principal.roles()
+                );
 
-            SecurityContextHolder.getContext().setAuthentication(authToken);
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
 
         } catch (Exception e) {
             SecurityContextHolder.clearContext();
@@ -0,0 +1,23 @@
+package cl.metspherical.calbucofelizbackend.common.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Identity carried by a verified access token, read in a single parse
+ *
+ * @param userId ID of the user
+ * @param username Username of the user
+ * @param roles Roles of the user (never null)
+ * @param tokenId Unique ID of the token (jti), null for tokens issued before it was added
+ * @param issuedAt When the token was issued
+ * @param expiresAt When the token expires
+ */
+public record JwtPrincipal(UUID userId, String username, List<String> roles,
+                           UUID tokenId, Instant issuedAt, Instant expiresAt) {
+
+    public JwtPrincipal {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+}
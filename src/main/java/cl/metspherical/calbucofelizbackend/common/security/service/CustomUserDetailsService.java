@@ -39,8 +39,8 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Invalid RUT: " + rutAsString);
         }
 
-        // Find user by RUT
-        User user = userRepository.findByRut(rut)
+        // Find user by RUT, roles included
+        User user = userRepository.findByRutWithRoles(rut)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with RUT: " + rut));
 
         // Convert to Spring Security UserDetails
@@ -1,11 +1,16 @@
 package cl.metspherical.calbucofelizbackend.common.security.service;
 
 import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.Map;
 import java.util.HashMap;
@@ -16,32 +21,56 @@ import javax.crypto.SecretKey;
 
 /**
  * Service responsible for JWT token operations including
- * generation, validation, and extraction of claims
+ * generation, validation, and extraction of claims.
+ * The signing key and the parser are built once; both are immutable and thread-safe.
  */
 @Service
 public class JwtService {
 
     private static final String USER_ID_CLAIM = "userId";
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-    
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
-
-    @Value("${jwt.refresh-expiration}")
-    private long jwtRefreshExpiration;
-
-    @Value("${jwt.issuer}")
-    private String jwtIssuer;
+    private final long jwtExpiration;
+    private final long jwtRefreshExpiration;
+    private final String jwtIssuer;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtService(
+            @Value("${jwt.secret}") String jwtSecret,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.refresh-expiration}") long jwtRefreshExpiration,
+            @Value("${jwt.issuer}") String jwtIssuer) {
+        this.jwtExpiration = jwtExpiration;
+        this.jwtRefreshExpiration = jwtRefreshExpiration;
+        this.jwtIssuer = jwtIssuer;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
 
     /**
-     * Creates and returns the signing key for JWT operations
-     * 
-     * @return SecretKey for signing tokens
+     * Verifies an access token and reads its identity, checking the signature once
+     *
+     * @param token JWT token string
+     * @return Principal carried by the token
+     * @throws JwtException if the token is malformed, has an invalid signature, is expired or has no user ID
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @SuppressWarnings("unchecked")
+    public JwtPrincipal verify(String token) {
+        Claims claims = extractAllClaims(token);
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        if (userId == null) {
+            throw new MalformedJwtException("Token has no user ID");
+        }
+        return new JwtPrincipal(
+                UUID.fromString(userId),
+                claims.get("username", String.class),
+                (List<String>) claims.get("roles"),
+                claims.getId() != null ? UUID.fromString(claims.getId()) : null,
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
     }
 
     /**
@@ -107,11 +136,7 @@ public class JwtService {
      * @return Claims object containing all token claims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -177,11 +202,12 @@ public class JwtService {
         
         return Jwts.builder()
                 .claims(extraClaims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuer(jwtIssuer)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
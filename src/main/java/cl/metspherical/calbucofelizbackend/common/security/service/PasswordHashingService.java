@@ -0,0 +1,103 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs BCrypt on the bounded password hashing executor instead of the request
+ * thread. When the executor is saturated, or a hash waits longer than the
+ * configured timeout, the request fails fast with 429 rather than queueing.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService passwordHashingExecutor;
+    private final long timeoutMs;
+    private final String dummyHash;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            @Qualifier("passwordHashingExecutor") ExecutorService passwordHashingExecutor,
+            @Value("${security.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.timeoutMs = timeoutMs;
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    /**
+     * Verifies a password against its stored hash
+     *
+     * @param rawPassword Password sent by the user
+     * @param encodedPassword Stored hash, or null if the user does not exist
+     * @return true if the password matches
+     * @throws ResponseStatusException with 429 if the executor is saturated
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            // Same work as a real check, so response times do not reveal which RUTs exist
+            run(() -> passwordEncoder.matches(rawPassword, dummyHash));
+            return false;
+        }
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a password with the configured cost factor
+     *
+     * @param rawPassword Password to hash
+     * @return BCrypt hash
+     * @throws ResponseStatusException with 429 if the executor is saturated
+     */
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * @param encodedPassword Stored hash
+     * @return true if the hash uses a lower cost factor than the configured one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordHashingExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw tooManyRequests();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw tooManyRequests();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password check interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ResponseStatusException tooManyRequests() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+            "Too many login attempts, please try again shortly");
+    }
+}
@@ -0,0 +1,201 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.RevokedToken;
+import cl.metspherical.calbucofelizbackend.common.enums.RevocationScope;
+import cl.metspherical.calbucofelizbackend.common.repository.RevokedTokenRepository;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import cl.metspherical.calbucofelizbackend.common.utils.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation of access and refresh tokens without a database query per request.
+ * Revocations are stored in revoked_token and mirrored in memory: a Bloom
+ * filter of revoked jtis and user IDs answers "not revoked" for almost every
+ * token with a few bit probes, and only a possible hit is checked against the
+ * exact map. Each instance applies its own revocations immediately and picks
+ * up the others' by polling revoked_token. Rows are pruned once the tokens
+ * they cover have expired, and the filter is rebuilt from what is left.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    /** Revocations written by other instances may become visible late; re-read this far back */
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long maxTokenLifetimeMs;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Map<UUID, Revocation> revocations = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.refresh-expiration}") long maxTokenLifetimeMs,
+            @Value("${jwt.revocation.expected-entries:100000}") int expectedRevocations,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.maxTokenLifetimeMs = maxTokenLifetimeMs;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Checks whether a verified token was revoked, without touching the database
+     *
+     * @param principal Principal of the verified token
+     * @return true if the token or every token of its user issued before it was revoked
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        BloomFilter current = filter;
+
+        if (principal.tokenId() != null && current.mightContain(principal.tokenId())) {
+            Revocation revocation = revocations.get(principal.tokenId());
+            if (revocation != null && revocation.scope() == RevocationScope.TOKEN) {
+                return true;
+            }
+        }
+
+        if (current.mightContain(principal.userId())) {
+            Revocation revocation = revocations.get(principal.userId());
+            return revocation != null
+                    && revocation.scope() == RevocationScope.USER
+                    && principal.issuedAt().isBefore(revocation.notBefore());
+        }
+        return false;
+    }
+
+    /**
+     * Revokes a single token until it expires
+     *
+     * @param principal Principal of the token to revoke
+     */
+    public void revoke(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            // Issued before tokens carried a jti; it expires on its own
+            return;
+        }
+
+        RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+                .id(principal.tokenId())
+                .userId(principal.userId())
+                .scope(RevocationScope.TOKEN)
+                .expiresAt(toLocal(principal.expiresAt()))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        apply(revoked);
+    }
+
+    /**
+     * Revokes every access and refresh token issued to a user so far
+     *
+     * @param userId ID of the user
+     */
+    public void revokeAllForUser(UUID userId) {
+        // iat has second precision, so the cutoff does too
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+                .id(userId)
+                .userId(userId)
+                .scope(RevocationScope.USER)
+                .notBefore(toLocal(notBefore))
+                .expiresAt(toLocal(notBefore.plusMillis(maxTokenLifetimeMs)))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        apply(revoked);
+    }
+
+    /**
+     * Loads every active revocation at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::apply);
+        lastSync = now;
+    }
+
+    /**
+     * Picks up revocations made by other instances
+     */
+    @Scheduled(
+            initialDelayString = "${jwt.revocation.sync-interval-ms:5000}",
+            fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        if (lastSync == null) {
+            load();
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS), now)
+                .forEach(this::apply);
+        lastSync = now;
+    }
+
+    /**
+     * Drops revocations whose tokens have expired and rebuilds the filter without them
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:600000}")
+    public void prune() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+
+        Instant now = Instant.now();
+        revocations.values().removeIf(revocation -> revocation.expiresAt().isBefore(now));
+
+        // A Bloom filter cannot forget, so the remaining entries go into a fresh one
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revocations.size()), falsePositiveRate);
+        revocations.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+
+        // Entries added while rebuilding may have gone into the old filter only
+        revocations.keySet().forEach(rebuilt::put);
+        log.debug("Pruned {} expired token revocations, {} active", deleted, revocations.size());
+    }
+
+    private void apply(RevokedToken revoked) {
+        Revocation revocation = new Revocation(
+                revoked.getScope(),
+                revoked.getNotBefore() != null ? toInstant(revoked.getNotBefore()) : null,
+                toInstant(revoked.getExpiresAt()));
+
+        // The exact entry goes in before the filter bit, so a filter hit always finds it
+        revocations.merge(revoked.getId(), revocation, Revocation::latest);
+        filter.put(revoked.getId());
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private record Revocation(RevocationScope scope, Instant notBefore, Instant expiresAt) {
+
+        /**
+         * Keeps the later cutoff when a user is revoked again (or a sync replays an older row)
+         */
+        Revocation latest(Revocation other) {
+            return other.expiresAt().isAfter(expiresAt) ? other : this;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded cache of access tokens that were already verified, so a burst of
+ * requests with the same token pays for one HMAC verification.
+ * Entries are keyed by a 64-bit hash of the raw token and hold the token
+ * itself, so a hash collision is a miss and never returns another principal.
+ * Each entry expires at the token's own exp, or after the configured maximum
+ * if that comes first. Failed verifications are not cached. Hit and miss
+ * counts are published as the cache.* metrics with cache=jwt.principals.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final Cache<Long, Entry> principals;
+
+    public VerifiedTokenCache(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.max-size:10000}") long maxSize,
+            @Value("${jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.jwtService = jwtService;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry(Duration.ofSeconds(maxTtlSeconds).toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "jwt.principals");
+    }
+
+    /**
+     * Returns the principal of an access token, verifying it only if it is not cached
+     *
+     * @param token JWT token string
+     * @return Principal carried by the token
+     * @throws io.jsonwebtoken.JwtException if the token is not valid
+     */
+    public JwtPrincipal verify(String token) {
+        long key = hash(token);
+        Entry cached = principals.getIfPresent(key);
+        if (cached != null && cached.token().equals(token)) {
+            return cached.principal();
+        }
+
+        JwtPrincipal principal = jwtService.verify(token);
+        principals.put(key, new Entry(token, principal));
+        return principal;
+    }
+
+    /**
+     * 64-bit FNV-1a over the token characters; much cheaper than an HMAC
+     */
+    static long hash(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private record Entry(String token, JwtPrincipal principal) {
+    }
+
+    /**
+     * Expires each entry at its token's exp, capped at a maximum time to live
+     */
+    private record UntilTokenExpiry(long maxTtlNanos) implements Expiry<Long, Entry> {
+
+        @Override
+        public long expireAfterCreate(Long key, Entry entry, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), entry.principal().expiresAt()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
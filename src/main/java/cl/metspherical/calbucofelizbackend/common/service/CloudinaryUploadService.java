@@ -1,22 +1,38 @@
 package cl.metspherical.calbucofelizbackend.common.service;
 
 import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Service responsible for uploading images to Cloudinary
+ * Service responsible for uploading images to Cloudinary (media.storage=cloudinary)
  */
 @Service
-public class CloudinaryUploadService {
+@ConditionalOnProperty(name = "media.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryUploadService implements MediaStorage {
 
     private static final String IMAGE_RESOURCE_TYPE = "image";
+    private static final String DIRECT_UPLOAD_FORMATS = "jpg,jpeg,png,gif,webp,bmp,tiff";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(20);
 
     private final Cloudinary cloudinary;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
 
     public CloudinaryUploadService(
             @Value("${cloudinary.cloud-name}") String cloudName,
@@ -32,13 +48,14 @@ public class CloudinaryUploadService {
     }
 
     /**
-     * Uploads an image to Cloudinary and returns the URL
-     * 
+     * Uploads an image to Cloudinary and returns its public ID and URL
+     *
      * @param imageBytes The image bytes to upload
-     * @return The URL of the uploaded image
+     * @return The uploaded image, whose public ID can later be used to delete it
      * @throws IOException if there's an error during upload
      */
-    public String uploadImage(byte[] imageBytes) throws IOException {
+    @Override
+    public UploadedImage uploadImageAsset(byte[] imageBytes) throws IOException {
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> uploadResult = cloudinary.uploader().upload(imageBytes, ObjectUtils.asMap(
@@ -50,9 +67,104 @@ public class CloudinaryUploadService {
                 throw new IOException("Failed to get public ID from Cloudinary upload result");
             }
 
-            return cloudinary.url().generate(publicId);
+            return new UploadedImage(publicId, cloudinary.url().generate(publicId));
         } catch (Exception e) {
             throw new IOException("Error uploading image to Cloudinary", e);
         }
     }
+
+    /**
+     * Deletes a previously uploaded image from Cloudinary
+     *
+     * @param publicId Public ID returned by the upload
+     * @throws IOException if there's an error during deletion
+     */
+    @Override
+    public void deleteImage(String publicId) throws IOException {
+        try {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.asMap(
+                    "resource_type", IMAGE_RESOURCE_TYPE
+            ));
+        } catch (Exception e) {
+            throw new IOException("Error deleting image from Cloudinary", e);
+        }
+    }
+
+    /**
+     * Signs the parameters of a direct client-to-Cloudinary upload.
+     * The public ID, accepted formats and incoming transformation are part of the
+     * signature, so the client cannot change where the image is stored or skip the
+     * downscale. Cloudinary rejects signatures whose timestamp is older than one hour
+     * (SIGNED_UPLOAD_LIFETIME_SECONDS).
+     *
+     * @param publicId Public ID the client must upload to
+     * @param maxSize Maximum width and height Cloudinary stores (larger images are scaled down)
+     * @return Parameters to send with the upload
+     */
+    @Override
+    public SignedUpload signUpload(String publicId, int maxSize) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        String transformation = "c_limit,h_" + maxSize + ",w_" + maxSize;
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("timestamp", timestamp);
+        params.put("public_id", publicId);
+        params.put("allowed_formats", DIRECT_UPLOAD_FORMATS);
+        params.put("transformation", transformation);
+        String signature = cloudinary.apiSignRequest(params, cloudinary.config.apiSecret);
+
+        return new SignedUpload(
+                "https://api.cloudinary.com/v1_1/" + cloudinary.config.cloudName + "/image/upload",
+                cloudinary.config.apiKey,
+                timestamp,
+                signature,
+                publicId,
+                DIRECT_UPLOAD_FORMATS,
+                transformation);
+    }
+
+    /**
+     * Builds the delivery URL of a stored image scaled down to fit a box.
+     * Cloudinary generates the rendition on first request and caches it.
+     *
+     * @param publicId Cloudinary public ID
+     * @param maxSize Maximum width and height
+     * @return Delivery URL of the rendition
+     */
+    @Override
+    public String deliveryUrl(String publicId, int maxSize) {
+        return cloudinary.url()
+                .transformation(new Transformation().width(maxSize).height(maxSize).crop("limit"))
+                .generate(publicId);
+    }
+
+    /**
+     * Downloads a stored image scaled down to fit a box
+     *
+     * @param publicId Cloudinary public ID
+     * @param maxSize Maximum width and height
+     * @return Image bytes
+     * @throws NoSuchFileException if no image exists under the public ID
+     * @throws IOException if the image cannot be downloaded
+     */
+    @Override
+    public byte[] fetchImage(String publicId, int maxSize) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(deliveryUrl(publicId, maxSize)))
+                .timeout(FETCH_TIMEOUT)
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 404) {
+                throw new NoSuchFileException(publicId);
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Cloudinary returned " + response.statusCode() + " for " + publicId);
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + publicId, e);
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global budget of decoded pixels alive at the same time, shared by every
+ * image decoding path (still images and animated GIFs). One permit stands for
+ * one megapixel; callers hold their permits while the pixels are in memory.
+ */
+@Component
+public class DecodeBudget {
+
+    private static final long PIXELS_PER_PERMIT = 1_000_000L;
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long waitMs;
+
+    public DecodeBudget(
+            @Value("${images.decode.max-concurrent-megapixels:64}") int maxMegapixels,
+            @Value("${images.decode.wait-ms:5000}") long waitMs) {
+        this.permits = new Semaphore(maxMegapixels, true);
+        this.maxPermits = maxMegapixels;
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Reserves budget for a number of decoded pixels, waiting up to the configured time
+     *
+     * @param pixels Pixels that will be alive while the reservation is held
+     * @return Reservation to close once the pixels are no longer referenced
+     * @throws ResponseStatusException SERVICE_UNAVAILABLE if the budget is not available in time
+     * @throws IOException if interrupted while waiting
+     */
+    public Reservation reserve(long pixels) throws IOException {
+        int count = permitsFor(pixels);
+        try {
+            if (!permits.tryAcquire(count, waitMs, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many images being processed, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to decode image", e);
+        }
+        return new Reservation(count);
+    }
+
+    int permitsFor(long pixels) {
+        long count = Math.max(1, Math.ceilDiv(pixels, PIXELS_PER_PERMIT));
+        // An image larger than the whole budget still runs, but alone
+        return (int) Math.min(count, maxPermits);
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Permits held for one decode; releases them when closed
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final int count;
+        private boolean released;
+
+        private Reservation(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                permits.release(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import com.twelvemonkeys.imageio.stream.ByteArrayImageInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Re-encodes animated GIFs downscaled to a maximum size.
+ * Frames are composited as the GIF specifies (offsets and disposal), scaled,
+ * and consecutive identical frames are merged adding up their delays, so the
+ * animation keeps its timing. Each frame is written as soon as the next one
+ * differs from it, so only the canvas and two scaled frames are in memory at
+ * once, and they are charged to the shared decode budget. A canvas, frame and
+ * total pixel limit is checked from the headers before any frame is decoded.
+ */
+@Component
+public class GifReencoder {
+
+    private static final String STREAM_METADATA_FORMAT = "javax_imageio_gif_stream_1.0";
+    private static final String IMAGE_METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+    private static final int DEFAULT_DELAY_CS = 10;
+
+    private final DecodeBudget decodeBudget;
+    private final int maxFrames;
+    private final long maxCanvasPixels;
+    private final long maxTotalPixels;
+
+    public GifReencoder(
+            DecodeBudget decodeBudget,
+            @Value("${images.gif.max-frames:200}") int maxFrames,
+            @Value("${images.gif.max-canvas-megapixels:16}") long maxCanvasMegapixels,
+            @Value("${images.gif.max-total-megapixels:100}") long maxTotalMegapixels) {
+        this.decodeBudget = decodeBudget;
+        this.maxFrames = maxFrames;
+        this.maxCanvasPixels = maxCanvasMegapixels * 1_000_000L;
+        this.maxTotalPixels = maxTotalMegapixels * 1_000_000L;
+    }
+
+    /**
+     * Re-encodes a GIF so that it fits in a maxSize x maxSize box
+     *
+     * @param gif Original GIF bytes
+     * @param maxSize Maximum width and height of the output
+     * @return Re-encoded GIF, or the original bytes if re-encoding would not make it smaller
+     * @throws IOException if the GIF cannot be read or written
+     * @throws ResponseStatusException if the GIF exceeds the canvas, frame or pixel limits,
+     *         or the decode budget is not available in time
+     */
+    public byte[] reencode(byte[] gif, int maxSize) throws IOException {
+        try (ImageInputStream input = new ByteArrayImageInputStream(gif)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("gif");
+            if (!readers.hasNext()) {
+                return gif;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, false);
+
+                // 1. Check the limits from the headers, before decoding any frame
+                int frameCount = reader.getNumImages(true);
+                Dimension screen = logicalScreen(reader);
+                long canvasPixels = (long) screen.width * screen.height;
+                if (frameCount > maxFrames || canvasPixels > maxCanvasPixels
+                        || canvasPixels * frameCount > maxTotalPixels) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "GIF is too large to process (maximum " + maxFrames + " frames)");
+                }
+
+                double ratio = Math.min(1.0, Math.min(
+                        (double) maxSize / screen.width, (double) maxSize / screen.height));
+                int targetWidth = Math.max(1, (int) (screen.width * ratio));
+                int targetHeight = Math.max(1, (int) (screen.height * ratio));
+
+                // 2. Reserve budget for the canvas, its restore copy and the current and pending scaled frames
+                long workingPixels = 2 * canvasPixels + 2L * targetWidth * targetHeight;
+                byte[] reencoded;
+                try (DecodeBudget.Reservation ignored = decodeBudget.reserve(workingPixels)) {
+                    // 3. Composite, scale, deduplicate and write frame by frame
+                    reencoded = transcode(reader, frameCount, screen, targetWidth, targetHeight, loopCount(reader));
+                }
+
+                // 4. Keep the original if it was already smaller
+                return ratio < 1.0 || reencoded.length < gif.length ? reencoded : gif;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] transcode(ImageReader reader, int frameCount, Dimension screen,
+                             int targetWidth, int targetHeight, Integer loopCount) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            writer.prepareWriteSequence(null);
+
+            BufferedImage canvas = new BufferedImage(screen.width, screen.height, BufferedImage.TYPE_INT_ARGB);
+            Frame pending = null;
+            boolean first = true;
+
+            for (int i = 0; i < frameCount; i++) {
+                BufferedImage frameImage = reader.read(i);
+                IIOMetadataNode metadata = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(IMAGE_METADATA_FORMAT);
+                IIOMetadataNode descriptor = child(metadata, "ImageDescriptor");
+                IIOMetadataNode control = child(metadata, "GraphicControlExtension");
+
+                int left = intAttribute(descriptor, "imageLeftPosition", 0);
+                int top = intAttribute(descriptor, "imageTopPosition", 0);
+                String disposal = control != null ? control.getAttribute("disposalMethod") : "none";
+                int delay = control != null ? intAttribute(control, "delayTime", DEFAULT_DELAY_CS) : DEFAULT_DELAY_CS;
+
+                BufferedImage previous = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+
+                Graphics2D g2d = canvas.createGraphics();
+                g2d.drawImage(frameImage, left, top, null);
+                g2d.dispose();
+
+                BufferedImage scaled = flattenAndScale(canvas, targetWidth, targetHeight);
+                if (pending != null && samePixels(pending.image(), scaled)) {
+                    // Redundant frame: extend the pending one instead
+                    pending = new Frame(pending.image(), pending.delay() + delay);
+                } else {
+                    if (pending != null) {
+                        writeFrame(writer, param, pending, first ? loopCount : null);
+                        first = false;
+                    }
+                    pending = new Frame(scaled, delay);
+                }
+
+                // Apply the frame's disposal before drawing the next one
+                if ("restoreToBackgroundColor".equals(disposal)) {
+                    Graphics2D clear = canvas.createGraphics();
+                    clear.setComposite(AlphaComposite.Clear);
+                    clear.fillRect(left, top, frameImage.getWidth(), frameImage.getHeight());
+                    clear.dispose();
+                } else if (previous != null) {
+                    canvas = previous;
+                }
+            }
+
+            if (pending != null) {
+                writeFrame(writer, param, pending, first ? loopCount : null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Appends a frame to the sequence; the loop count goes on the first frame only
+     */
+    private void writeFrame(ImageWriter writer, ImageWriteParam param, Frame frame, Integer loopCount) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(
+                ImageTypeSpecifier.createFromRenderedImage(frame.image()), param);
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(IMAGE_METADATA_FORMAT);
+
+        IIOMetadataNode control = getOrCreate(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("transparentColorIndex", "0");
+        control.setAttribute("delayTime", Integer.toString(frame.delay()));
+
+        if (loopCount != null) {
+            IIOMetadataNode extensions = getOrCreate(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{1, (byte) (loopCount & 0xFF), (byte) ((loopCount >> 8) & 0xFF)});
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(IMAGE_METADATA_FORMAT, root);
+
+        writer.writeToSequence(new IIOImage(frame.image(), null, metadata), param);
+    }
+
+    /**
+     * Draws the canvas over white (as the JPEG path does) at the target size
+     */
+    private BufferedImage flattenAndScale(BufferedImage canvas, int targetWidth, int targetHeight) {
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, targetWidth, targetHeight);
+        g2d.drawImage(canvas, 0, 0, targetWidth, targetHeight, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    private Dimension logicalScreen(ImageReader reader) throws IOException {
+        IIOMetadata streamMetadata = reader.getStreamMetadata();
+        if (streamMetadata != null) {
+            IIOMetadataNode root = (IIOMetadataNode) streamMetadata.getAsTree(STREAM_METADATA_FORMAT);
+            IIOMetadataNode screen = child(root, "LogicalScreenDescriptor");
+            int width = intAttribute(screen, "logicalScreenWidth", 0);
+            int height = intAttribute(screen, "logicalScreenHeight", 0);
+            if (width > 0 && height > 0) {
+                return new Dimension(width, height);
+            }
+        }
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+    }
+
+    /**
+     * Reads the NETSCAPE2.0 loop count of the first frame, or null if the GIF does not loop
+     */
+    private Integer loopCount(ImageReader reader) throws IOException {
+        IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(0).getAsTree(IMAGE_METADATA_FORMAT);
+        IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+        if (extensions == null) {
+            return null;
+        }
+        for (Node node = extensions.getFirstChild(); node != null; node = node.getNextSibling()) {
+            IIOMetadataNode extension = (IIOMetadataNode) node;
+            if ("NETSCAPE".equals(extension.getAttribute("applicationID"))
+                    && extension.getUserObject() instanceof byte[] data && data.length >= 3) {
+                return (data[1] & 0xFF) | ((data[2] & 0xFF) << 8);
+            }
+        }
+        return null;
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        return Arrays.equals(
+                ((DataBufferInt) a.getRaster().getDataBuffer()).getData(),
+                ((DataBufferInt) b.getRaster().getDataBuffer()).getData());
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+        Graphics2D g2d = copy.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return copy;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return (IIOMetadataNode) node;
+            }
+        }
+        return null;
+    }
+
+    private static IIOMetadataNode getOrCreate(IIOMetadataNode parent, String name) {
+        IIOMetadataNode node = child(parent, name);
+        if (node == null) {
+            node = new IIOMetadataNode(name);
+            parent.appendChild(node);
+        }
+        return node;
+    }
+
+    private static int intAttribute(IIOMetadataNode node, String name, int defaultValue) {
+        if (node == null || node.getAttribute(name).isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(node.getAttribute(name));
+    }
+
+    private record Frame(BufferedImage image, int delay) {
+    }
+}
@@ -1,66 +1,180 @@
 package cl.metspherical.calbucofelizbackend.common.service;
 
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import cl.metspherical.calbucofelizbackend.common.utils.BlurHash;
+import com.twelvemonkeys.imageio.stream.ByteArrayImageInputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Service responsible for image compression and format conversion
+ * Images are decoded with source subsampling close to the target size, and a
+ * global pixel budget limits how many megapixels are decoded at the same time.
+ * The images of a post are compressed in parallel on a bounded executor, and
+ * each image is decoded once to produce all of its renditions (see ImageVariant).
  */
 @Service
 public class ImageCompressionService {
 
-    private static final float DEFAULT_COMPRESSION_QUALITY = 0.8f;
-    private static final int MAX_WIDTH = 1080;
-    private static final int MAX_HEIGHT = 1080;
+    private static final int MAX_WIDTH = ImageVariant.FULL.getMaxSize();
+    private static final int MAX_HEIGHT = ImageVariant.FULL.getMaxSize();
+    private static final List<ImageVariant> POST_VARIANTS =
+            List.of(ImageVariant.THUMBNAIL, ImageVariant.MEDIUM, ImageVariant.FULL);
+    private static final List<ImageVariant> AVATAR_VARIANTS =
+            List.of(ImageVariant.AVATAR_SMALL, ImageVariant.FULL);
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+
+    private final DecodeBudget decodeBudget;
+    private final ExecutorService compressionExecutor;
+    private final Timer compressionTimer;
+    private final GifReencoder gifReencoder;
+    private final JpegEncoder jpegEncoder;
+
+    public ImageCompressionService(
+            DecodeBudget decodeBudget,
+            @Qualifier("imageCompressionExecutor") ExecutorService compressionExecutor,
+            MeterRegistry meterRegistry,
+            GifReencoder gifReencoder,
+            JpegEncoder jpegEncoder) {
+        this.decodeBudget = decodeBudget;
+        this.compressionExecutor = compressionExecutor;
+        this.compressionTimer = Timer.builder("image.compression.duration")
+                .description("Time to compress a single image")
+                .register(meterRegistry);
+        this.gifReencoder = gifReencoder;
+        this.jpegEncoder = jpegEncoder;
+    }
 
     /**
      * Compresses and converts an image to the optimal format:
-     * - GIF: Preserves as GIF (supports animation)
+     * - GIF: Stays an animated GIF, downscaled to the same size limit
      * - All other formats: Converts to JPEG with compression for maximum space savings
      * Supported formats: JPEG, PNG, GIF, BMP, TIFF, WebP (via TwelveMonkeys ImageIO)
      * 
-     * @param file The image file to compress
+     * @param file The buffered image file to compress
      * @return byte array of the compressed image
      * @throws IOException if there's an error during compression
      */
-    public byte[] compressImage(MultipartFile file) throws IOException {
-        // Validate input
+    public byte[] compressImage(UploadBuffer file) throws IOException {
+        validate(file);
+
+        // GIF: Re-encode downscaled, keeping the animation
+        if (isGifFormat(file)) {
+            return gifReencoder.reencode(file.array(), MAX_WIDTH);
+        }
+        
+        // All other formats: Convert to JPEG for maximum compression
+        return jpegEncoder.encode(decodeForJPEG(file), ImageVariant.FULL);
+    }
+
+    /**
+     * Compresses a post image into thumbnail, medium and full renditions,
+     * plus a BlurHash placeholder computed from the already decoded image
+     *
+     * @param file The buffered image file to compress
+     * @return Renditions of the image (GIFs only get FULL)
+     * @throws IOException if there's an error during compression
+     */
+    public ProcessedImage compressPostImage(UploadBuffer file) throws IOException {
+        return compressVariants(file, POST_VARIANTS, true);
+    }
+
+    /**
+     * Compresses an avatar into a full rendition and a small square-cropped one
+     *
+     * @param file The buffered avatar file to compress
+     * @return Renditions of the avatar (GIFs only get FULL)
+     * @throws IOException if there's an error during compression
+     */
+    public ProcessedImage compressAvatar(UploadBuffer file) throws IOException {
+        return compressVariants(file, AVATAR_VARIANTS, false);
+    }
+
+    /**
+     * Computes the BlurHash placeholder of an image without encoding any rendition,
+     * e.g. for images that are already stored and served by Cloudinary
+     *
+     * @param file The buffered image file
+     * @return BlurHash placeholder (first frame for GIFs)
+     * @throws IOException if the image cannot be decoded
+     */
+    public String computePlaceholder(UploadBuffer file) throws IOException {
+        validate(file);
+        return placeholder(decodeForJPEG(file));
+    }
+
+    /**
+     * Decodes the image once and encodes every requested rendition from the full-size
+     * image. Non-square renditions are skipped when the image is not larger than them.
+     */
+    private ProcessedImage compressVariants(UploadBuffer file, List<ImageVariant> variants,
+                                            boolean withPlaceholder) throws IOException {
+        validate(file);
+
+        if (isGifFormat(file)) {
+            byte[] gif = gifReencoder.reencode(file.array(), MAX_WIDTH);
+            // ImageIO.read decodes only the first frame
+            BufferedImage firstFrame = withPlaceholder ? ImageIO.read(new ByteArrayImageInputStream(gif)) : null;
+            return new ProcessedImage(Map.of(ImageVariant.FULL, gif), placeholder(firstFrame));
+        }
+
+        BufferedImage fullImage = decodeForJPEG(file);
+        int longestSide = Math.max(fullImage.getWidth(), fullImage.getHeight());
+
+        Map<ImageVariant, byte[]> renditions = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : variants) {
+            if (variant == ImageVariant.FULL) {
+                renditions.put(variant, jpegEncoder.encode(fullImage, variant));
+            } else if (variant.isSquare()) {
+                renditions.put(variant, jpegEncoder.encode(cropSquare(fullImage, variant.getMaxSize()), variant));
+            } else if (longestSide > variant.getMaxSize()) {
+                renditions.put(variant, jpegEncoder.encode(processImageForJPEG(fullImage, variant.getMaxSize()), variant));
+            }
+        }
+        return new ProcessedImage(renditions, withPlaceholder ? placeholder(fullImage) : null);
+    }
+
+    private String placeholder(BufferedImage image) {
+        return image != null ? BlurHash.encode(image, PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y) : null;
+    }
+
+    private void validate(UploadBuffer file) throws IOException {
         if (file.isEmpty()) {
             throw new IOException("Image file is empty");
         }
-        
+
         if (file.getSize() > 10 * 1024 * 1024) { // 10MB limit
             throw new IOException("Image file too large. Maximum size allowed is 10MB");
         }
-
-        // GIF: Preserve as GIF (supports animation)
-        if (isGifFormat(file)) {
-            return file.getBytes();
-        }
-        
-        // All other formats: Convert to JPEG for maximum compression
-        return convertToJPEG(file);
     }
     
     /**
-     * Detects if the image file is a GIF (to preserve animation)
+     * Detects if the image file is a GIF (to keep the animation)
      * All other formats will be converted to JPEG for optimal compression
      */
-    private boolean isGifFormat(MultipartFile file) {
+    private boolean isGifFormat(UploadBuffer file) {
         // First check Content-Type
         String contentType = file.getContentType();
         if (contentType != null && contentType.toLowerCase().contains("gif")) {
@@ -81,42 +195,54 @@ public class ImageCompressionService {
     }
 
     /**
-     * Converts an image to JPEG format with compression and mobile optimization
+     * Decodes an image reading its dimensions first, so only every n-th pixel of
+     * large sources is decoded, and holds pixel budget permits while the decoded
+     * pixels are alive
      */
-    private byte[] convertToJPEG(MultipartFile file) throws IOException {
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        if (originalImage == null) {
-            throw new IOException("Unable to read image file: " + file.getOriginalFilename());
-        }
+    private BufferedImage decodeForJPEG(UploadBuffer file) throws IOException {
+        // Reads straight from the buffered bytes, without ImageIO's stream cache copy
+        try (ImageInputStream input = new ByteArrayImageInputStream(file.array())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unable to read image file: " + file.getOriginalFilename());
+            }
 
-        // Resize and convert to RGB in one step for efficiency  
-        BufferedImage processedImage = processImageForJPEG(originalImage);
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
 
-        // Compress and write JPEG
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
-        
-        try (ImageOutputStream ios = ImageIO.createImageOutputStream(outputStream)) {
-            writer.setOutput(ios);
+                // 1. Read the header only and pick the subsampling factor
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int subsampling = subsamplingFactor(width, height);
+                long decodedPixels = (long) Math.ceilDiv(width, subsampling) * Math.ceilDiv(height, subsampling);
 
-            ImageWriteParam param = writer.getDefaultWriteParam();
-            if (param.canWriteCompressed()) {
-                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                param.setCompressionQuality(DEFAULT_COMPRESSION_QUALITY);
+                // 2. Reserve budget for the decoded pixels
+                try (DecodeBudget.Reservation ignored = decodeBudget.reserve(decodedPixels)) {
+                    // 3. Decode subsampled and draw into the target canvas
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    BufferedImage decodedImage = reader.read(0, param);
+                    return processImageForJPEG(decodedImage, MAX_WIDTH);
+                }
+            } finally {
+                reader.dispose();
             }
-
-            writer.write(null, new IIOImage(processedImage, null, null), param);
-            return outputStream.toByteArray();
-            
-        } finally {
-            writer.dispose();
         }
     }
 
     /**
-     * Processes image for JPEG: resizes for mobile and converts to RGB in one efficient operation
+     * Largest integer subsampling that still decodes at least the target size,
+     * so the final resize only ever scales down
      */
-    private BufferedImage processImageForJPEG(BufferedImage originalImage) {
+    static int subsamplingFactor(int width, int height) {
+        return Math.max(1, Math.max(width / MAX_WIDTH, height / MAX_HEIGHT));
+    }
+
+    /**
+     * Processes image for JPEG: resizes to fit a square box and converts to RGB in one efficient operation
+     */
+    private BufferedImage processImageForJPEG(BufferedImage originalImage, int maxSize) {
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
         
@@ -124,12 +250,30 @@ public class ImageCompressionService {
         int targetWidth = originalWidth;
         int targetHeight = originalHeight;
         
-        if (originalWidth > MAX_WIDTH || originalHeight > MAX_HEIGHT) {
-            double ratio = Math.min((double) MAX_WIDTH / originalWidth, (double) MAX_HEIGHT / originalHeight);
-            targetWidth = (int) (originalWidth * ratio);
-            targetHeight = (int) (originalHeight * ratio);
+        if (originalWidth > maxSize || originalHeight > maxSize) {
+            double ratio = Math.min((double) maxSize / originalWidth, (double) maxSize / originalHeight);
+            targetWidth = Math.max(1, (int) (originalWidth * ratio));
+            targetHeight = Math.max(1, (int) (originalHeight * ratio));
         }
-        
+
+        return drawScaled(originalImage, targetWidth, targetHeight);
+    }
+
+    /**
+     * Center-crops the image to a square and scales it down to the given size
+     */
+    private BufferedImage cropSquare(BufferedImage image, int size) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = image.getSubimage(
+                (image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        int targetSize = Math.min(size, side);
+        return drawScaled(square, targetSize, targetSize);
+    }
+
+    /**
+     * Draws the image into a new RGB canvas of the target dimensions
+     */
+    private BufferedImage drawScaled(BufferedImage originalImage, int targetWidth, int targetHeight) {
         // Create RGB image with target dimensions
         BufferedImage processedImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = processedImage.createGraphics();
@@ -151,24 +295,48 @@ public class ImageCompressionService {
     }
 
     /**
-     * Compresses multiple images efficiently
+     * Compresses multiple post images in parallel, keeping the input order
+     *
+     * @param images Images to compress
+     * @return Renditions of each image in the same order as the input
+     * @throws ResponseStatusException 503 if the compression executor is full, 500 if an image fails
      */
-    public List<byte[]> compressImages(List<MultipartFile> images) {
+    public List<ProcessedImage> compressImages(List<UploadBuffer> images) {
         if (images == null || images.isEmpty()) {
             return new ArrayList<>();
         }
 
-        List<byte[]> processedImages = new ArrayList<>(images.size()); // Pre-allocate
-        
-        for (MultipartFile image : images) {
-            try {
-                processedImages.add(compressImage(image));
-            } catch (IOException e) {
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                    "Error compressing image: " + e.getMessage());
+        // 1. Fan out one task per image
+        List<Future<ProcessedImage>> tasks = new ArrayList<>(images.size());
+        try {
+            for (UploadBuffer image : images) {
+                tasks.add(compressionExecutor.submit(() -> compressionTimer.recordCallable(() -> compressPostImage(image))));
             }
+        } catch (RejectedExecutionException e) {
+            tasks.forEach(task -> task.cancel(true));
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many images being processed, please try again");
         }
-        
+
+        // 2. Collect results in input order
+        List<ProcessedImage> processedImages = new ArrayList<>(images.size()); // Pre-allocate
+        try {
+            for (Future<ProcessedImage> task : tasks) {
+                processedImages.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(task -> task.cancel(true));
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Image compression interrupted");
+        } catch (ExecutionException e) {
+            tasks.forEach(task -> task.cancel(true));
+            if (e.getCause() instanceof ResponseStatusException responseStatusException) {
+                throw responseStatusException;
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Error compressing image: " + e.getCause().getMessage());
+        }
+
         return processedImages;
     }
 }
@@ -0,0 +1,34 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Checks uploaded images for inappropriate content before they are stored
+ */
+public interface ImageModerationService {
+
+    /**
+     * Maximum number of images accepted in a single validation
+     */
+    int MAX_IMAGES = 10;
+
+    /**
+     * Analyzes a single image
+     *
+     * @param image Uploaded image, read once into memory
+     * @return true if the image is safe, false if it contains sensitive content
+     * @throws IOException if the image cannot be read or analyzed
+     */
+    boolean isImageSafe(UploadBuffer image) throws IOException;
+
+    /**
+     * Validates multiple images for inappropriate content
+     *
+     * @param images List of images to validate
+     * @throws ResponseStatusException if any image contains inappropriate content or validation fails
+     */
+    void validateImages(List<UploadBuffer> images);
+}
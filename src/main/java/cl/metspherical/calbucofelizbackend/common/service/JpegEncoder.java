@@ -0,0 +1,143 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Progressive JPEG encoder with an optional byte budget per rendition.
+ * In adaptive mode the quality is binary-searched so each rendition is the
+ * best quality that fits its budget; in fixed mode every image is encoded at
+ * the default quality. JPEG writers are pooled instead of looked up per image.
+ */
+@Component
+public class JpegEncoder {
+
+    private static final float DEFAULT_QUALITY = 0.8f;
+    private static final float MAX_QUALITY = 0.85f;
+    private static final float MIN_QUALITY = 0.4f;
+    private static final int SEARCH_STEPS = 5;
+
+    private final boolean adaptive;
+    private final Map<ImageVariant, Integer> maxBytes = new EnumMap<>(ImageVariant.class);
+    private final BlockingQueue<ImageWriter> writerPool;
+
+    public JpegEncoder(
+            @Value("${images.jpeg.mode:adaptive}") String mode,
+            @Value("${images.jpeg.max-bytes.avatar-small:8192}") int avatarSmallMaxBytes,
+            @Value("${images.jpeg.max-bytes.thumbnail:30720}") int thumbnailMaxBytes,
+            @Value("${images.jpeg.max-bytes.medium:92160}") int mediumMaxBytes,
+            @Value("${images.jpeg.max-bytes.full:256000}") int fullMaxBytes,
+            @Value("${images.jpeg.writer-pool-size:8}") int writerPoolSize) {
+        this.adaptive = "adaptive".equalsIgnoreCase(mode);
+        this.maxBytes.put(ImageVariant.AVATAR_SMALL, avatarSmallMaxBytes);
+        this.maxBytes.put(ImageVariant.THUMBNAIL, thumbnailMaxBytes);
+        this.maxBytes.put(ImageVariant.MEDIUM, mediumMaxBytes);
+        this.maxBytes.put(ImageVariant.FULL, fullMaxBytes);
+        this.writerPool = new ArrayBlockingQueue<>(writerPoolSize);
+    }
+
+    /**
+     * Encodes an RGB image as a progressive JPEG for the given rendition
+     *
+     * @param image RGB image to encode
+     * @param variant Rendition being encoded, which selects the byte budget
+     * @return Encoded JPEG (at the minimum quality if even that exceeds the budget)
+     * @throws IOException if the image cannot be encoded
+     */
+    public byte[] encode(BufferedImage image, ImageVariant variant) throws IOException {
+        ImageWriter writer = borrowWriter();
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            if (!adaptive) {
+                return write(writer, image, DEFAULT_QUALITY, outputStream);
+            }
+
+            int budget = maxBytes.get(variant);
+
+            // 1. Best case: the highest quality already fits
+            byte[] best = write(writer, image, MAX_QUALITY, outputStream);
+            if (best.length <= budget) {
+                return best;
+            }
+
+            // 2. Binary search for the highest quality under the budget
+            float low = MIN_QUALITY;
+            float high = MAX_QUALITY;
+            best = null;
+            for (int step = 0; step < SEARCH_STEPS; step++) {
+                float quality = (low + high) / 2;
+                byte[] candidate = write(writer, image, quality, outputStream);
+                if (candidate.length <= budget) {
+                    best = candidate;
+                    low = quality;
+                } else {
+                    high = quality;
+                }
+            }
+
+            // 3. Nothing fits: fall back to the minimum quality
+            return best != null ? best : write(writer, image, MIN_QUALITY, outputStream);
+        } finally {
+            releaseWriter(writer);
+        }
+    }
+
+    /**
+     * Disposes the pooled writers on shutdown
+     */
+    @PreDestroy
+    public void close() {
+        ImageWriter writer;
+        while ((writer = writerPool.poll()) != null) {
+            writer.dispose();
+        }
+    }
+
+    private byte[] write(ImageWriter writer, BufferedImage image, float quality,
+                         ByteArrayOutputStream outputStream) throws IOException {
+        outputStream.reset();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(outputStream)) {
+            writer.setOutput(ios);
+
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.setOutput(null);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private ImageWriter borrowWriter() {
+        ImageWriter writer = writerPool.poll();
+        return writer != null ? writer : ImageIO.getImageWritersByFormatName("jpeg").next();
+    }
+
+    private void releaseWriter(ImageWriter writer) {
+        writer.reset();
+        if (!writerPool.offer(writer)) {
+            writer.dispose();
+        }
+    }
+}
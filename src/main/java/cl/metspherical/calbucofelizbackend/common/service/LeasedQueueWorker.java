@@ -0,0 +1,226 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.LeasedTask;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base of the workers that drain a table used as a job queue.
+ * Each poll claims as many due rows as there are idle workers in one locking
+ * query, leases them and runs them on a fixed pool of daemon threads. Client
+ * errors (4xx) reject a task at once; other failures are retried with
+ * exponential backoff until the attempts run out. A task whose worker stops
+ * mid-way is claimed again once its lease expires.
+ *
+ * @param <T> Type of the queued rows
+ */
+@Slf4j
+public abstract class LeasedQueueWorker<T extends LeasedTask> {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final String name;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long leaseMs;
+    private final ExecutorService executor;
+    private final Semaphore idleWorkers;
+
+    protected LeasedQueueWorker(
+            String name,
+            PlatformTransactionManager transactionManager,
+            int workers,
+            int maxAttempts,
+            long backoffBaseMs,
+            long backoffMaxMs,
+            long leaseMs) {
+        this.name = name;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leaseMs = leaseMs;
+        this.idleWorkers = new Semaphore(workers);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Claims due tasks for the idle workers and hands them over.
+     * Subclasses schedule it with their own interval.
+     */
+    public void poll() {
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+
+        for (T task : claim(idle)) {
+            idleWorkers.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    run(task);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops taking tasks on shutdown. Tasks still running are claimed again
+     * once their lease expires.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Locks due tasks, marks them running with a lease and counts the attempt
+     *
+     * @param limit Maximum number of tasks to claim
+     * @return Claimed tasks
+     */
+    protected List<T> claim(int limit) {
+        List<T> tasks = transactionTemplate.execute(status -> {
+            LocalDateTime lockedUntil = LocalDateTime.now().plusNanos(leaseMs * 1_000_000L);
+            List<T> due = lockDue(limit);
+            for (T task : due) {
+                markRunning(task);
+                task.setAttempts(task.getAttempts() + 1);
+                task.setLockedUntil(lockedUntil);
+            }
+            return due;
+        });
+        return tasks != null ? tasks : List.of();
+    }
+
+    /**
+     * Runs one attempt of a claimed task and settles its outcome
+     *
+     * @param task Claimed task
+     */
+    public void run(T task) {
+        try {
+            execute(task);
+        } catch (Exception e) {
+            String reason = rejectionReason(e);
+            if (reason != null) {
+                reject(task, reason);
+            } else {
+                retryOrReject(task, e);
+            }
+        }
+    }
+
+    /**
+     * Locks up to limit due tasks (FOR UPDATE SKIP LOCKED); called inside the claim transaction
+     */
+    protected abstract List<T> lockDue(int limit);
+
+    /**
+     * Sets the running status of a task being claimed
+     */
+    protected abstract void markRunning(T task);
+
+    /**
+     * Does the work of a task and records its success
+     *
+     * @throws Exception to retry the task, or to reject it if rejectionReason says so
+     */
+    protected abstract void execute(T task) throws Exception;
+
+    /**
+     * Sets the queued status of a task whose retry was scheduled and saves it
+     */
+    protected abstract void requeue(T task);
+
+    /**
+     * Gives up on a task for good
+     *
+     * @param task Task to give up on
+     * @param reason Why the task failed
+     */
+    protected abstract void reject(T task, String reason);
+
+    /**
+     * Decides whether a failure is permanent. By default client errors are.
+     *
+     * @param failure Failure of an attempt
+     * @return Reason to reject the task with, or null to retry it
+     */
+    protected String rejectionReason(Exception failure) {
+        if (failure instanceof ResponseStatusException e && e.getStatusCode().is4xxClientError()) {
+            return e.getReason();
+        }
+        return null;
+    }
+
+    /**
+     * @param failure Failure of the last attempt
+     * @return Reason to reject a task with once its attempts run out
+     */
+    protected String exhaustedReason(Exception failure) {
+        return failure.getMessage();
+    }
+
+    private void retryOrReject(T task, Exception failure) {
+        if (task.getAttempts() >= maxAttempts) {
+            log.error("{} task {} failed after {} attempts", name, task.getId(), task.getAttempts(), failure);
+            reject(task, exhaustedReason(failure));
+            return;
+        }
+
+        long delayMs = backoffMillis(task.getAttempts(), backoffBaseMs, backoffMaxMs);
+        log.warn("{} task {} failed (attempt {}), retrying in {} ms: {}",
+                name, task.getId(), task.getAttempts(), delayMs, failure.getMessage());
+
+        task.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000L));
+        task.setLockedUntil(null);
+        task.setLastError(truncate(failure.getMessage()));
+        requeue(task);
+    }
+
+    /**
+     * Exponential backoff: base, 2 x base, 4 x base... capped at max
+     *
+     * @param attempts Attempts made so far (1 after the first failure)
+     * @param baseMs Delay after the first failure
+     * @param maxMs Maximum delay
+     * @return Delay before the next attempt, in milliseconds
+     */
+    static long backoffMillis(int attempts, long baseMs, long maxMs) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(baseMs << doublings, maxMs);
+    }
+
+    /**
+     * Cuts an error message to the size of the last_error columns
+     */
+    protected static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,58 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Local stand-in for the Vision moderation service, used for benchmarks and
+ * offline development (moderation.provider=local). Accepts every image after
+ * an optional simulated latency.
+ */
+@Service
+@ConditionalOnProperty(name = "moderation.provider", havingValue = "local")
+public class LocalImageModerationService implements ImageModerationService {
+
+    private final long simulatedLatencyMs;
+
+    public LocalImageModerationService(
+            @Value("${moderation.local.latency-ms:0}") long simulatedLatencyMs
+    ) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
+    @Override
+    public boolean isImageSafe(UploadBuffer image) {
+        simulateLatency();
+        return true;
+    }
+
+    @Override
+    public void validateImages(List<UploadBuffer> images) {
+        if (images == null || images.isEmpty()) {
+            return;
+        }
+
+        if (images.size() > MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximum 10 images allowed");
+        }
+
+        // Simulates a single batched call, as the Vision implementation does
+        simulateLatency();
+    }
+
+    private void simulateLatency() {
+        if (simulatedLatencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(simulatedLatencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
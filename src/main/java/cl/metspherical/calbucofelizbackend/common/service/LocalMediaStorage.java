@@ -0,0 +1,249 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local-disk media storage for self-hosted deployments and offline benchmarks
+ * (media.storage=local). Files are content-addressed: the ID is the SHA-256 of
+ * the bytes plus an extension sniffed from them, so identical images are stored
+ * once and a file never changes once written. Files are served by MediaController.
+ * Any post may reference a stored file (the fingerprint cache hands its URL
+ * out for every later upload of the same bytes), so no caller owns a file:
+ * deleteImage keeps it and LocalMediaSweeper removes it once no post image or
+ * avatar points to it anymore. Storing content that is already on disk touches
+ * the file, so the sweeper leaves reused files alone.
+ */
+@Service
+@ConditionalOnProperty(name = "media.storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    private static final Pattern MEDIA_ID = Pattern.compile("[0-9a-f]{64}\\.(jpg|gif|png|webp|bmp|tiff|bin)");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "gif", "image/gif",
+            "png", "image/png",
+            "webp", "image/webp",
+            "bmp", "image/bmp",
+            "tiff", "image/tiff",
+            "bin", "application/octet-stream");
+
+    private final Path root;
+    private final String baseUrl;
+    private final Object sweepLock = new Object();
+
+    public LocalMediaStorage(
+            @Value("${media.local.dir:${java.io.tmpdir}/calbuco-media}") String root,
+            @Value("${media.local.base-url:/media}") String baseUrl) {
+        this.root = Paths.get(root).toAbsolutePath();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Stores an image under its content hash, reusing the file if the same
+     * content is already stored. The file is always shared, so no public ID is
+     * returned and callers never delete it.
+     */
+    @Override
+    public UploadedImage uploadImageAsset(byte[] imageBytes) throws IOException {
+        String id = MediaFingerprintCache.sha256(imageBytes) + "." + extension(imageBytes);
+        Path target = resolve(id);
+        if (reuse(target)) {
+            return new UploadedImage(null, url(id));
+        }
+
+        // Write aside, then link into place: the link fails instead of replacing a concurrent writer's file
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), id, ".tmp");
+        try {
+            Files.write(temporary, imageBytes);
+            Files.createLink(target, temporary);
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent upload of the same content stored it first
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new UploadedImage(null, url(id));
+    }
+
+    /**
+     * Content-addressed files may be referenced by other posts, so they are kept
+     * until LocalMediaSweeper finds them unreferenced; only a malformed ID is reported
+     */
+    @Override
+    public void deleteImage(String publicId) throws IOException {
+        resolve(publicId);
+    }
+
+    /**
+     * No transformations are available locally, so every rendition is the stored file
+     */
+    @Override
+    public String deliveryUrl(String publicId, int maxSize) {
+        return url(publicId);
+    }
+
+    @Override
+    public byte[] fetchImage(String publicId, int maxSize) throws IOException {
+        return Files.readAllBytes(resolve(publicId));
+    }
+
+    @Override
+    public SignedUpload signUpload(String publicId, int maxSize) {
+        throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED,
+            "Direct uploads are not supported by the local media storage");
+    }
+
+    /**
+     * Resolves a media ID to its file, rejecting anything that is not a well-formed ID
+     *
+     * @param id Media ID (SHA-256 and extension)
+     * @return Path of the file, which may not exist
+     * @throws NoSuchFileException if the ID is malformed
+     */
+    public Path resolve(String id) throws NoSuchFileException {
+        if (id == null || !MEDIA_ID.matcher(id).matches()) {
+            throw new NoSuchFileException(String.valueOf(id));
+        }
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    /**
+     * @param id Media ID
+     * @return Content type of the media, from its extension
+     */
+    public String contentType(String id) {
+        return CONTENT_TYPES.getOrDefault(id.substring(id.lastIndexOf('.') + 1), "application/octet-stream");
+    }
+
+    /**
+     * @param id Media ID
+     * @return Public URL of the media
+     */
+    String url(String id) {
+        return baseUrl + "/" + id;
+    }
+
+    /**
+     * @return Prefix shared by the public URLs of every stored file
+     */
+    String urlPrefix() {
+        return baseUrl + "/";
+    }
+
+    /**
+     * Lists the stored files neither written nor reused since the cutoff
+     *
+     * @param cutoff Files modified at or after this time are skipped
+     * @return Media IDs of the files
+     */
+    List<String> storedBefore(Instant cutoff) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+
+        List<String> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String id = file.getFileName().toString();
+                if (MEDIA_ID.matcher(id).matches() && isUnusedSince(file, cutoff)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes a stored file unless it was reused since the cutoff
+     *
+     * @param id Media ID
+     * @param cutoff Time after which a write or reuse keeps the file
+     * @return true if the file was deleted
+     */
+    boolean deleteIfUnusedSince(String id, Instant cutoff) throws IOException {
+        Path file = resolve(id);
+        synchronized (sweepLock) {
+            return isUnusedSince(file, cutoff) && Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Touches a stored file so the sweeper keeps it for another grace period
+     *
+     * @return false if the file is not stored (or was just swept)
+     */
+    private boolean reuse(Path file) throws IOException {
+        synchronized (sweepLock) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean isUnusedSince(Path file, Instant cutoff) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sniffs the image format from its first bytes
+     */
+    private static String extension(byte[] bytes) {
+        if (startsWith(bytes, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(bytes, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(bytes, 0x89, 'P', 'N', 'G')) {
+            return "png";
+        }
+        if (startsWith(bytes, 'R', 'I', 'F', 'F') && bytes.length >= 12
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "webp";
+        }
+        if (startsWith(bytes, 'B', 'M')) {
+            return "bmp";
+        }
+        if (startsWith(bytes, 'I', 'I', 0x2A, 0x00) || startsWith(bytes, 'M', 'M', 0x00, 0x2A)) {
+            return "tiff";
+        }
+        return "bin";
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
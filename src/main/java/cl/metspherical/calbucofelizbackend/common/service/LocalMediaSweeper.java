@@ -0,0 +1,109 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes local media files that no post image or avatar points to anymore
+ * (media.storage=local). Files are shared by content, so instead of counting
+ * references each run checks the files untouched for the grace period against
+ * post_image and users; the grace period covers uploads whose post or avatar
+ * is not committed yet. An unreferenced file is first dropped from the
+ * fingerprint cache, so no new post reuses its URL, and deleted on the next
+ * run if it is still unreferenced and was not uploaded again meanwhile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "media.storage", havingValue = "local")
+public class LocalMediaSweeper {
+
+    private static final String REFERENCED_URLS_SQL =
+            "SELECT url FROM post_image WHERE url LIKE ? " +
+            "UNION SELECT medium_url FROM post_image WHERE medium_url LIKE ? " +
+            "UNION SELECT thumbnail_url FROM post_image WHERE thumbnail_url LIKE ? " +
+            "UNION SELECT avatar FROM users WHERE avatar LIKE ? " +
+            "UNION SELECT avatar_small FROM users WHERE avatar_small LIKE ?";
+
+    private final LocalMediaStorage localMediaStorage;
+    private final MediaFingerprintCache mediaFingerprintCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final long graceSeconds;
+
+    // Unreferenced files forgotten by the previous run, deleted by this one
+    private Set<String> forgotten = Set.of();
+
+    public LocalMediaSweeper(
+            LocalMediaStorage localMediaStorage,
+            MediaFingerprintCache mediaFingerprintCache,
+            JdbcTemplate jdbcTemplate,
+            @Value("${media.local.sweep-grace-seconds:3600}") long graceSeconds) {
+        this.localMediaStorage = localMediaStorage;
+        this.mediaFingerprintCache = mediaFingerprintCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.graceSeconds = graceSeconds;
+    }
+
+    /**
+     * Deletes the files forgotten by the previous run that are still unreferenced,
+     * and forgets the newly unreferenced ones
+     *
+     * @return Number of files deleted
+     */
+    @Scheduled(fixedDelayString = "${media.local.sweep-interval-ms:3600000}")
+    public int sweep() {
+        Instant cutoff = Instant.now().minusSeconds(graceSeconds);
+        try {
+            // 1. List the stale files before reading references, so a file referenced meanwhile was touched
+            List<String> stale = localMediaStorage.storedBefore(cutoff);
+            Set<String> referenced = referencedUrls();
+
+            // 2. Delete the unreferenced files that were already forgotten, forget the rest
+            int deleted = 0;
+            Map<String, String> toForget = new HashMap<>();
+            for (String id : stale) {
+                String url = localMediaStorage.url(id);
+                if (referenced.contains(url)) {
+                    continue;
+                }
+                if (!forgotten.contains(id)) {
+                    toForget.put(id, url);
+                } else if (localMediaStorage.deleteIfUnusedSince(id, cutoff)) {
+                    deleted++;
+                }
+            }
+
+            // 3. Only files whose URL is no longer handed out may be deleted next run
+            mediaFingerprintCache.forgetUrls(new HashSet<>(toForget.values()));
+            forgotten = toForget.keySet();
+
+            if (deleted > 0) {
+                log.info("Deleted {} unreferenced media files", deleted);
+            }
+            return deleted;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not sweep unreferenced media files", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Loads every local media URL still stored on a post image or avatar
+     */
+    private Set<String> referencedUrls() {
+        String pattern = localMediaStorage.urlPrefix() + "%";
+        return new HashSet<>(jdbcTemplate.queryForList(
+                REFERENCED_URLS_SQL, String.class, pattern, pattern, pattern, pattern, pattern));
+    }
+}
@@ -0,0 +1,40 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Local stand-in for Twilio, used for load tests and offline development
+ * (sms.provider=local). Accepts every message after an optional simulated
+ * latency and only logs the recipient.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "sms.provider", havingValue = "local")
+public class LocalSmsGateway implements SmsGateway {
+
+    private final long simulatedLatencyMs;
+
+    public LocalSmsGateway(
+            @Value("${sms.local.latency-ms:0}") long simulatedLatencyMs
+    ) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
+    @Override
+    public String sendSms(String toPhoneNumber, String messageBody) {
+        if (simulatedLatencyMs > 0) {
+            try {
+                Thread.sleep(simulatedLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.debug("Local SMS gateway accepted a message to {}", toPhoneNumber);
+        return "local-" + UUID.randomUUID();
+    }
+}
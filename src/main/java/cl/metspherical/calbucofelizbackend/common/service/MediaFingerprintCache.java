@@ -0,0 +1,157 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.MediaFingerprint;
+import cl.metspherical.calbucofelizbackend.common.repository.MediaFingerprintRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Content-addressed cache of image moderation verdicts and uploaded URLs,
+ * keyed by the SHA-256 of the image bytes.
+ * A bounded in-memory tier sits in front of the media_fingerprint table, so an
+ * image that was already moderated or uploaded skips the remote call.
+ */
+@Slf4j
+@Component
+public class MediaFingerprintCache {
+
+    private final MediaFingerprintRepository mediaFingerprintRepository;
+    private final Cache<String, Fingerprint> fingerprints;
+
+    public MediaFingerprintCache(
+            MediaFingerprintRepository mediaFingerprintRepository,
+            @Value("${media.fingerprints.cache-max-size:10000}") long maxSize) {
+        this.mediaFingerprintRepository = mediaFingerprintRepository;
+        this.fingerprints = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 of the image bytes
+     *
+     * @param bytes Image bytes
+     * @return Lower-case hex digest
+     */
+    public static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Finds the known moderation verdicts of the given images
+     *
+     * @param hashes SHA-256 digests of the images
+     * @return Verdict (true if safe) keyed by digest, only for images already moderated
+     */
+    public Map<String, Boolean> findVerdicts(Collection<String> hashes) {
+        Map<String, Boolean> verdicts = new HashMap<>();
+        lookup(hashes).forEach((hash, fingerprint) -> {
+            if (fingerprint.safe() != null) {
+                verdicts.put(hash, fingerprint.safe());
+            }
+        });
+        return verdicts;
+    }
+
+    /**
+     * Finds the URLs under which the given images were already uploaded
+     *
+     * @param hashes SHA-256 digests of the images
+     * @return URL keyed by digest, only for images already uploaded
+     */
+    public Map<String, String> findUrls(Collection<String> hashes) {
+        Map<String, String> urls = new HashMap<>();
+        lookup(hashes).forEach((hash, fingerprint) -> {
+            if (fingerprint.url() != null) {
+                urls.put(hash, fingerprint.url());
+            }
+        });
+        return urls;
+    }
+
+    /**
+     * Stores the moderation verdict of an image
+     *
+     * @param hash SHA-256 digest of the image
+     * @param safe true if the image is safe
+     */
+    public void rememberVerdict(String hash, boolean safe) {
+        try {
+            mediaFingerprintRepository.upsertVerdict(hash, safe);
+        } catch (RuntimeException e) {
+            log.warn("Could not store moderation verdict for {}", hash, e);
+        }
+        fingerprints.asMap().compute(hash, (key, current) ->
+                new Fingerprint(safe, current != null ? current.url() : null));
+    }
+
+    /**
+     * Stores the URL under which an image was uploaded.
+     * Call only once the URL is referenced by committed data.
+     *
+     * @param hash SHA-256 digest of the image
+     * @param url Public URL of the uploaded image
+     */
+    public void rememberUrl(String hash, String url) {
+        try {
+            mediaFingerprintRepository.upsertUrl(hash, url);
+        } catch (RuntimeException e) {
+            log.warn("Could not store uploaded URL for {}", hash, e);
+        }
+        fingerprints.asMap().compute(hash, (key, current) ->
+                new Fingerprint(current != null ? current.safe() : null, url));
+    }
+
+    /**
+     * Stops handing out URLs whose file is about to be deleted, so no new upload reuses them
+     *
+     * @param urls Public URLs to forget
+     */
+    public void forgetUrls(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        mediaFingerprintRepository.clearUrls(urls);
+        fingerprints.asMap().replaceAll((hash, fingerprint) -> urls.contains(fingerprint.url())
+                ? new Fingerprint(fingerprint.safe(), null)
+                : fingerprint);
+    }
+
+    /**
+     * Looks the digests up in memory first and loads the rest with one query
+     */
+    private Map<String, Fingerprint> lookup(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Fingerprint> found = new HashMap<>(fingerprints.getAllPresent(hashes));
+        Set<String> missing = new HashSet<>(hashes);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        for (MediaFingerprint entity : mediaFingerprintRepository.findAllById(missing)) {
+            Fingerprint fingerprint = new Fingerprint(entity.getSafe(), entity.getUrl());
+            fingerprints.put(entity.getSha256(), fingerprint);
+            found.put(entity.getSha256(), fingerprint);
+        }
+        return found;
+    }
+
+    private record Fingerprint(Boolean safe, String url) {
+    }
+}
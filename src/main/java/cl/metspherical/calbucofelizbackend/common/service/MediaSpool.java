@@ -0,0 +1,123 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Local disk spool for raw uploaded images waiting to be processed.
+ * Each spool entry is a directory with one file per image and a manifest with
+ * their names and content types. The manifest is written last and moved into
+ * place atomically, so an entry without a manifest is incomplete.
+ * The directory must be shared by every instance that runs the media workers.
+ */
+@Slf4j
+@Component
+public class MediaSpool {
+
+    private static final String MANIFEST = "manifest.properties";
+
+    private final Path root;
+
+    public MediaSpool(@Value("${media.spool.dir:${java.io.tmpdir}/calbuco-media-spool}") String root) {
+        this.root = Paths.get(root);
+    }
+
+    /**
+     * Writes the images of a job to the spool
+     *
+     * @param key Spool entry key (the job ID)
+     * @param images Images to store, in order
+     * @throws IOException if the images cannot be written (the partial entry is removed)
+     */
+    public void write(UUID key, List<UploadBuffer> images) throws IOException {
+        Path directory = root.resolve(key.toString());
+        try {
+            Files.createDirectories(directory);
+
+            Properties manifest = new Properties();
+            manifest.setProperty("count", Integer.toString(images.size()));
+            for (int i = 0; i < images.size(); i++) {
+                UploadBuffer image = images.get(i);
+                Files.write(directory.resolve(Integer.toString(i)), image.array());
+                if (image.getOriginalFilename() != null) {
+                    manifest.setProperty(i + ".filename", image.getOriginalFilename());
+                }
+                if (image.getContentType() != null) {
+                    manifest.setProperty(i + ".contentType", image.getContentType());
+                }
+            }
+
+            // The manifest marks the entry as complete
+            Path temporary = directory.resolve(MANIFEST + ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                manifest.store(output, null);
+            }
+            Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            delete(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the images of a job back from the spool
+     *
+     * @param key Spool entry key (the job ID)
+     * @return Images in the order they were written
+     * @throws NoSuchFileException if the entry does not exist or is incomplete
+     * @throws IOException if the images cannot be read
+     */
+    public List<UploadBuffer> read(UUID key) throws IOException {
+        Path directory = root.resolve(key.toString());
+
+        Properties manifest = new Properties();
+        try (InputStream input = Files.newInputStream(directory.resolve(MANIFEST))) {
+            manifest.load(input);
+        }
+
+        int count = Integer.parseInt(manifest.getProperty("count", "0"));
+        List<UploadBuffer> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            images.add(UploadBuffer.of(
+                    Files.readAllBytes(directory.resolve(Integer.toString(i))),
+                    manifest.getProperty(i + ".filename"),
+                    manifest.getProperty(i + ".contentType")));
+        }
+        return images;
+    }
+
+    /**
+     * Removes a spool entry. Failures are logged, never thrown.
+     *
+     * @param key Spool entry key (the job ID)
+     */
+    public void delete(UUID key) {
+        Path directory = root.resolve(key.toString());
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete spooled media {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * Stores uploaded images and builds the URLs they are served from.
+ * The backend is selected with media.storage: cloudinary (default) or local.
+ */
+public interface MediaStorage {
+
+    /** Signed direct uploads are accepted for this long after they were signed */
+    long SIGNED_UPLOAD_LIFETIME_SECONDS = 3600;
+
+    /**
+     * Stores an image and returns its URL
+     *
+     * @param imageBytes The image bytes to store
+     * @return The URL of the stored image
+     * @throws IOException if the image cannot be stored
+     */
+    default String uploadImage(byte[] imageBytes) throws IOException {
+        return uploadImageAsset(imageBytes).url();
+    }
+
+    /**
+     * Stores an image and returns its ID and URL
+     *
+     * @param imageBytes The image bytes to store
+     * @return The stored image; a null public ID means the content was already
+     *         stored and is shared, so it must not be deleted by the caller
+     * @throws IOException if the image cannot be stored
+     */
+    UploadedImage uploadImageAsset(byte[] imageBytes) throws IOException;
+
+    /**
+     * Deletes a stored image
+     *
+     * @param publicId ID returned when the image was stored
+     * @throws IOException if the image cannot be deleted
+     */
+    void deleteImage(String publicId) throws IOException;
+
+    /**
+     * Builds the URL of a stored image scaled down to fit a box.
+     * Backends without on-the-fly transformations return the original.
+     *
+     * @param publicId ID of the stored image
+     * @param maxSize Maximum width and height
+     * @return URL of the rendition
+     */
+    String deliveryUrl(String publicId, int maxSize);
+
+    /**
+     * Reads a stored image scaled down to fit a box
+     *
+     * @param publicId ID of the stored image
+     * @param maxSize Maximum width and height
+     * @return Image bytes
+     * @throws NoSuchFileException if no image exists under the ID
+     * @throws IOException if the image cannot be read
+     */
+    byte[] fetchImage(String publicId, int maxSize) throws IOException;
+
+    /**
+     * Signs the parameters of a direct client-to-storage upload
+     *
+     * @param publicId ID the client must upload to
+     * @param maxSize Maximum width and height stored (larger images are scaled down)
+     * @return Parameters to send with the upload
+     * @throws ResponseStatusException if the backend does not support direct uploads
+     */
+    SignedUpload signUpload(String publicId, int maxSize);
+
+    /**
+     * Image held by the storage
+     *
+     * @param publicId ID of the stored image (null for shared content)
+     * @param url Delivery URL of the image
+     */
+    record UploadedImage(String publicId, String url) {
+    }
+
+    /**
+     * Signed parameters of a direct upload
+     *
+     * @param uploadUrl Upload endpoint
+     * @param apiKey Public API key
+     * @param timestamp Signature timestamp (seconds)
+     * @param signature Request signature
+     * @param publicId ID the image will be stored under
+     * @param allowedFormats Accepted image formats
+     * @param transformation Incoming transformation applied before storing
+     */
+    record SignedUpload(String uploadUrl, String apiKey, long timestamp, String signature,
+                        String publicId, String allowedFormats, String transformation) {
+    }
+}
@@ -0,0 +1,42 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compressed renditions of one uploaded image, iterated in ImageVariant order.
+ * FULL is always present; smaller renditions are omitted when the source is
+ * not larger than them, and clients fall back to the next larger one.
+ *
+ * @param renditions Encoded bytes keyed by variant
+ * @param placeholder BlurHash of the image, or null if none was computed
+ */
+public record ProcessedImage(Map<ImageVariant, byte[]> renditions, String placeholder) {
+
+    public ProcessedImage {
+        if (renditions == null || !renditions.containsKey(ImageVariant.FULL)) {
+            throw new IllegalArgumentException("A processed image needs a FULL rendition");
+        }
+        renditions = Collections.unmodifiableMap(new EnumMap<>(renditions));
+    }
+
+    /**
+     * Wraps a single full-size rendition (e.g. a GIF passed through)
+     *
+     * @param full Encoded full-size image
+     * @return Processed image with only the FULL rendition
+     */
+    public static ProcessedImage of(byte[] full) {
+        return new ProcessedImage(Map.of(ImageVariant.FULL, full), null);
+    }
+
+    /**
+     * @return Encoded full-size rendition
+     */
+    public byte[] full() {
+        return renditions.get(ImageVariant.FULL);
+    }
+}
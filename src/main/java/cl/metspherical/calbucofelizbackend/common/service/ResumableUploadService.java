@@ -0,0 +1,318 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.UploadSession;
+import cl.metspherical.calbucofelizbackend.common.repository.UploadSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads following the tus core protocol: a client creates an
+ * upload with its total length, appends chunks at the offset the server
+ * reports and, after a dropped connection, asks for the offset and resumes.
+ * Chunks are written with positional FileChannel writes into a spool file and
+ * the committed offset is stored in upload_session only after the bytes are
+ * forced to disk, so bytes past the committed offset are simply overwritten by
+ * the next chunk. Completed uploads are consumed by post creation; sessions
+ * that are never completed expire and are deleted with their file.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final Path root;
+    private final long maxLength;
+    private final long ttlSeconds;
+    private final int maxSessionsPerUser;
+    // Uploads with a chunk being written on this instance; other instances are fenced by advance()
+    private final Set<UUID> writing = ConcurrentHashMap.newKeySet();
+
+    public ResumableUploadService(
+            UploadSessionRepository uploadSessionRepository,
+            @Value("${media.uploads.dir:${java.io.tmpdir}/calbuco-uploads}") String root,
+            @Value("${media.uploads.max-length:10485760}") long maxLength,
+            @Value("${media.uploads.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${media.uploads.max-sessions-per-user:10}") int maxSessionsPerUser) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.root = Paths.get(root);
+        this.maxLength = maxLength;
+        this.ttlSeconds = ttlSeconds;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    /**
+     * Creates an upload and its empty spool file
+     *
+     * @param userId ID of the uploading user
+     * @param length Total length of the upload in bytes
+     * @param metadata Upload-Metadata header (comma-separated "key base64value" pairs), may be null
+     * @return The new upload session
+     * @throws ResponseStatusException if the length is missing or too large, the metadata is malformed
+     *                                 or the user already has the maximum number of open uploads (429)
+     */
+    public UploadSession create(UUID userId, Long length, String metadata) {
+        if (length == null || length <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload-Length is required");
+        }
+        if (length > maxLength) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Upload exceeds the maximum of " + maxLength + " bytes");
+        }
+
+        // Every open upload holds spool disk until it is consumed or expires
+        if (uploadSessionRepository.countByUserIdAndExpiresAtAfter(userId, LocalDateTime.now()) >= maxSessionsPerUser) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many open uploads, finish or wait for the existing ones to expire");
+        }
+
+        Map<String, String> values = parseMetadata(metadata);
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .uploadLength(length)
+                .filename(values.get("filename"))
+                .contentType(values.getOrDefault("filetype", values.get("contentType")))
+                .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+                .build();
+
+        try {
+            Files.createDirectories(root);
+            Files.createFile(file(session.getId()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not create upload", e);
+        }
+        return uploadSessionRepository.save(session);
+    }
+
+    /**
+     * Returns an upload of the current user
+     *
+     * @param userId ID of the current user
+     * @param uploadId ID of the upload
+     * @return The upload session
+     * @throws ResponseStatusException if the upload does not exist, expired or belongs to another user
+     */
+    public UploadSession get(UUID userId, UUID uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .filter(session -> session.getUserId().equals(userId))
+                .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+    }
+
+    /**
+     * Appends a chunk to an upload. If the client disconnects mid-chunk, the
+     * bytes received so far are kept and the offset reflects them.
+     *
+     * @param userId ID of the current user
+     * @param uploadId ID of the upload
+     * @param offset Upload-Offset sent by the client
+     * @param body Chunk content
+     * @return New offset of the upload
+     * @throws ResponseStatusException if the offset does not match (409), the chunk exceeds the
+     *                                 declared length (413) or the upload is being written by another request (409)
+     */
+    public long append(UUID userId, UUID uploadId, long offset, InputStream body) {
+        if (!writing.add(uploadId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already being written");
+        }
+
+        try {
+            // 1. The client must resume exactly where the committed bytes end
+            UploadSession session = get(userId, uploadId);
+            if (session.getUploadOffset() != offset) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Upload-Offset does not match the current offset " + session.getUploadOffset());
+            }
+
+            // 2. Write the chunk at its position; bytes past the committed offset are not trusted yet
+            long remaining = session.getUploadLength() - offset;
+            long[] written = {0};
+            try (FileChannel channel = open(uploadId)) {
+                try {
+                    transfer(body, channel, offset, remaining, written);
+                } catch (IOException e) {
+                    // 3. The client went away: keep whatever arrived so it can resume from there
+                    log.debug("Upload {} interrupted after {} bytes", uploadId, written[0], e);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not write upload", e);
+            }
+
+            // 4. Commit the new offset
+            return commit(uploadId, offset, offset + written[0]);
+        } finally {
+            writing.remove(uploadId);
+        }
+    }
+
+    /**
+     * Reads completed uploads of the current user into memory for post creation
+     *
+     * @param userId ID of the current user
+     * @param uploadIds IDs of the uploads, may be null
+     * @return Buffers in the same order as the IDs
+     * @throws ResponseStatusException if an upload does not exist or is not complete
+     */
+    public List<UploadBuffer> readCompleted(UUID userId, List<UUID> uploadIds) {
+        if (uploadIds == null || uploadIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<UploadBuffer> buffers = new ArrayList<>(uploadIds.size());
+        for (UUID uploadId : uploadIds) {
+            UploadSession session = get(userId, uploadId);
+            if (!session.isComplete()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload " + uploadId + " is not complete");
+            }
+            try {
+                byte[] bytes = Files.readAllBytes(file(uploadId));
+                buffers.add(UploadBuffer.of(bytes, session.getFilename(), session.getContentType()));
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.GONE, "Upload " + uploadId + " is no longer available");
+            }
+        }
+        return buffers;
+    }
+
+    /**
+     * Deletes uploads of the current user and their files
+     *
+     * @param userId ID of the current user
+     * @param uploadIds IDs of the uploads, may be null
+     */
+    public void delete(UUID userId, List<UUID> uploadIds) {
+        if (uploadIds == null) {
+            return;
+        }
+        for (UUID uploadId : uploadIds) {
+            uploadSessionRepository.findById(uploadId)
+                    .filter(session -> session.getUserId().equals(userId))
+                    .ifPresent(this::remove);
+        }
+    }
+
+    /**
+     * Deletes expired uploads, complete or not, and their spool files
+     */
+    @Scheduled(fixedDelayString = "${media.uploads.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(
+                LocalDateTime.now(), Limit.of(CLEANUP_BATCH_SIZE));
+        expired.forEach(this::remove);
+    }
+
+    /**
+     * Parses a tus Upload-Metadata header
+     *
+     * @param header Comma-separated pairs of a key and an optional base64 value
+     * @return Decoded values by key (keys without a value map to an empty string)
+     * @throws ResponseStatusException if a value is not valid base64
+     */
+    public static Map<String, String> parseMetadata(String header) {
+        Map<String, String> values = new HashMap<>();
+        if (header == null || header.isBlank()) {
+            return values;
+        }
+
+        for (String pair : header.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            if (parts[0].isEmpty()) {
+                continue;
+            }
+            try {
+                String value = parts.length > 1
+                        ? new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8)
+                        : "";
+                values.put(parts[0], value);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Upload-Metadata");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Copies the body into the file at the given position, counting bytes in written[0]
+     * so the caller knows how much arrived if the body fails mid-way
+     */
+    private void transfer(InputStream body, FileChannel channel, long position, long remaining,
+                          long[] written) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(body);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        while (source.read(buffer) != -1) {
+            if (written[0] + buffer.position() > remaining) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Chunk exceeds the declared Upload-Length");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written[0] += channel.write(buffer, position + written[0]);
+            }
+            buffer.clear();
+        }
+    }
+
+    private FileChannel open(UUID uploadId) {
+        try {
+            return FileChannel.open(file(uploadId), StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload is no longer available");
+        }
+    }
+
+    private long commit(UUID uploadId, long expected, long offset) {
+        if (offset == expected) {
+            return offset;
+        }
+        int updated = uploadSessionRepository.advance(
+                uploadId, expected, offset, LocalDateTime.now().plusSeconds(ttlSeconds));
+        if (updated == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload was modified concurrently");
+        }
+        return offset;
+    }
+
+    private void remove(UploadSession session) {
+        try {
+            Files.deleteIfExists(file(session.getId()));
+            uploadSessionRepository.delete(session);
+        } catch (IOException e) {
+            log.warn("Could not delete upload {}", session.getId(), e);
+        }
+    }
+
+    private Path file(UUID uploadId) {
+        return root.resolve(uploadId.toString());
+    }
+}
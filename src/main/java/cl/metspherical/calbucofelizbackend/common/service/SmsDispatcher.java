@@ -0,0 +1,126 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.SmsMessage;
+import cl.metspherical.calbucofelizbackend.common.enums.SmsStatus;
+import cl.metspherical.calbucofelizbackend.common.repository.SmsOutboxRepository;
+import cl.metspherical.calbucofelizbackend.common.utils.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the sms_outbox table off the request path.
+ * Claiming, leasing and retries come from LeasedQueueWorker; every send first
+ * takes a token from a rate limiter so the provider's rate limit is not
+ * exceeded however many messages are queued. Messages the provider refuses are
+ * dead-lettered at once. Sent and dead messages lose their body and are
+ * deleted after a retention period.
+ */
+@Slf4j
+@Component
+public class SmsDispatcher extends LeasedQueueWorker<SmsMessage> {
+
+    private final SmsOutboxRepository smsOutboxRepository;
+    private final SmsGateway smsGateway;
+    private final TokenBucket rateLimiter;
+    private final int retentionDays;
+
+    public SmsDispatcher(
+            SmsOutboxRepository smsOutboxRepository,
+            SmsGateway smsGateway,
+            PlatformTransactionManager transactionManager,
+            @Value("${sms.dispatcher.workers:4}") int workers,
+            @Value("${sms.dispatcher.rate-per-second:10}") double ratePerSecond,
+            @Value("${sms.dispatcher.max-attempts:5}") int maxAttempts,
+            @Value("${sms.dispatcher.backoff-base-ms:2000}") long backoffBaseMs,
+            @Value("${sms.dispatcher.backoff-max-ms:300000}") long backoffMaxMs,
+            @Value("${sms.dispatcher.lease-ms:60000}") long leaseMs,
+            @Value("${sms.dispatcher.retention-days:7}") int retentionDays) {
+        super("sms-dispatcher", transactionManager, workers, maxAttempts, backoffBaseMs, backoffMaxMs, leaseMs);
+        this.smsOutboxRepository = smsOutboxRepository;
+        this.smsGateway = smsGateway;
+        this.rateLimiter = new TokenBucket(ratePerSecond, workers);
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${sms.dispatcher.poll-interval-ms:500}")
+    public void poll() {
+        super.poll();
+    }
+
+    /**
+     * Deletes sent and dead messages once the retention period has passed
+     */
+    @Scheduled(fixedDelayString = "${sms.dispatcher.prune-interval-ms:3600000}")
+    public void prune() {
+        int deleted = smsOutboxRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.debug("Pruned {} finished SMS messages", deleted);
+    }
+
+    @Override
+    protected List<SmsMessage> lockDue(int limit) {
+        return smsOutboxRepository.lockDueMessages(limit);
+    }
+
+    @Override
+    protected void markRunning(SmsMessage message) {
+        message.setStatus(SmsStatus.SENDING);
+    }
+
+    /**
+     * Sends a message once a rate limiter token is available
+     */
+    @Override
+    protected void execute(SmsMessage message) {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            // Shutting down; the message is claimed again once its lease expires
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        smsGateway.sendSms(message.getPhoneNumber(), message.getBody());
+
+        message.setStatus(SmsStatus.SENT);
+        message.setSentAt(LocalDateTime.now());
+        message.setBody(null);
+        message.setLockedUntil(null);
+        message.setLastError(null);
+        saveQuietly(message);
+    }
+
+    @Override
+    protected void requeue(SmsMessage message) {
+        message.setStatus(SmsStatus.QUEUED);
+        saveQuietly(message);
+    }
+
+    @Override
+    protected void reject(SmsMessage message, String reason) {
+        log.error("SMS {} dead-lettered after {} attempts: {}", message.getId(), message.getAttempts(), reason);
+
+        message.setStatus(SmsStatus.DEAD);
+        message.setBody(null);
+        message.setLockedUntil(null);
+        message.setLastError(truncate(reason));
+        saveQuietly(message);
+    }
+
+    /**
+     * Saves the message state; a failure leaves the row SENDING until its lease expires
+     */
+    private void saveQuietly(SmsMessage message) {
+        try {
+            smsOutboxRepository.save(message);
+        } catch (RuntimeException e) {
+            log.warn("Could not update SMS {}", message.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Sends SMS messages through a provider.
+ * The provider is selected with sms.provider: twilio (default) or local.
+ */
+public interface SmsGateway {
+
+    /**
+     * Sends an SMS message to the specified phone number
+     *
+     * @param toPhoneNumber The recipient's phone number (must include country code, e.g., +56912345678)
+     * @param messageBody The message content
+     * @return ID the provider assigned to the message
+     * @throws ResponseStatusException with a 4xx status if the provider refused the
+     *         message and retrying cannot help, or another status if the failure may be transient
+     */
+    String sendSms(String toPhoneNumber, String messageBody);
+}
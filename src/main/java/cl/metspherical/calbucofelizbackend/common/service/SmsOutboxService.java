@@ -0,0 +1,55 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.SmsMessage;
+import cl.metspherical.calbucofelizbackend.common.repository.SmsOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Queues SMS messages in the outbox. Messages are written in the caller's
+ * transaction, so they are sent if and only if the change that triggered
+ * them commits; SmsDispatcher delivers them afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+public class SmsOutboxService {
+
+    private final SmsOutboxRepository smsOutboxRepository;
+
+    /**
+     * Queues a message for delivery
+     *
+     * @param toPhoneNumber The recipient's phone number (must include country code, e.g., +56912345678)
+     * @param messageBody The message content
+     * @return The queued message
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SmsMessage enqueue(String toPhoneNumber, String messageBody) {
+        return smsOutboxRepository.save(SmsMessage.builder()
+                .id(UUID.randomUUID())
+                .phoneNumber(toPhoneNumber)
+                .body(messageBody)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Queues a password recovery SMS with the temporary password
+     *
+     * @param phoneNumber The recipient's phone number
+     * @param temporaryPassword The temporary password to send
+     * @return The queued message
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SmsMessage enqueuePasswordRecovery(String phoneNumber, String temporaryPassword) {
+        String messageBody = String.format(
+                "Codigo para CalbucoFeliz es: %s", temporaryPassword
+        );
+        return enqueue(phoneNumber, messageBody);
+    }
+}
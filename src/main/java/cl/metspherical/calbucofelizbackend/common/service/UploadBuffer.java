@@ -0,0 +1,143 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An uploaded image read exactly once into a single array sized to the part.
+ * Moderation, decoding and upload all work on read-only views of the same
+ * bytes, so no step copies or re-reads the multipart data. The buffer is
+ * short-lived and is released with the request that created it.
+ */
+public final class UploadBuffer {
+
+    private final byte[] bytes;
+    private final String originalFilename;
+    private final String contentType;
+    private volatile String sha256;
+
+    private UploadBuffer(byte[] bytes, String originalFilename, String contentType) {
+        this.bytes = bytes;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Reads a multipart file into a buffer
+     *
+     * @param file Uploaded file
+     * @return Buffer holding the file content
+     * @throws IOException if the file cannot be read
+     */
+    public static UploadBuffer read(MultipartFile file) throws IOException {
+        long size = file.getSize();
+        byte[] bytes;
+        try (InputStream input = file.getInputStream()) {
+            if (size > 0 && size <= Integer.MAX_VALUE) {
+                // The part size is known up front, so the array is allocated once at its final size
+                bytes = new byte[(int) size];
+                int read = input.readNBytes(bytes, 0, bytes.length);
+                if (read != bytes.length) {
+                    throw new IOException("Image file is shorter than its declared size");
+                }
+            } else {
+                bytes = input.readAllBytes();
+            }
+        }
+        return new UploadBuffer(bytes, file.getOriginalFilename(), file.getContentType());
+    }
+
+    /**
+     * Wraps bytes that were already read, e.g. from the media spool
+     *
+     * @param bytes Image content (not copied)
+     * @param originalFilename Original file name, may be null
+     * @param contentType Declared content type, may be null
+     * @return Buffer over the given bytes
+     */
+    public static UploadBuffer of(byte[] bytes, String originalFilename, String contentType) {
+        return new UploadBuffer(bytes, originalFilename, contentType);
+    }
+
+    /**
+     * Reads every multipart file of a request into a buffer
+     *
+     * @param files Uploaded files, may be null
+     * @return Buffers in the same order as the files
+     * @throws ResponseStatusException if a file cannot be read
+     */
+    public static List<UploadBuffer> readAll(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<UploadBuffer> buffers = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            try {
+                buffers.add(read(file));
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Error reading image: " + e.getMessage());
+            }
+        }
+        return buffers;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return bytes.length;
+    }
+
+    public boolean isEmpty() {
+        return bytes.length == 0;
+    }
+
+    /**
+     * @return A new stream over the buffered bytes (no copy)
+     */
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * @return A read-only view of the buffered bytes (no copy)
+     */
+    public ByteBuffer asReadOnlyByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return SHA-256 of the content, computed on first use
+     */
+    public String sha256() {
+        String hash = sha256;
+        if (hash == null) {
+            hash = MediaFingerprintCache.sha256(bytes);
+            sha256 = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * The backing array, for services in this package that read the bytes
+     * without copying (e.g. the decoder and the GIF re-encoder). Callers must not modify it.
+     */
+    byte[] array() {
+        return bytes;
+    }
+}
@@ -1,100 +1,254 @@
 package cl.metspherical.calbucofelizbackend.common.service;
 
+import com.google.api.core.ApiFuture;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.vision.v1.*;
-import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
+/**
+ * Image moderation backed by Google Cloud Vision SafeSearch.
+ * A single annotator client (one gRPC channel) is shared by all requests and
+ * closed on shutdown; all images of a post are sent in one batch call.
+ * Verdicts are cached by content hash, so only images never seen before reach Vision.
+ */
 @Service
-public class VisionSafeSearchService {
+@ConditionalOnProperty(name = "moderation.provider", havingValue = "vision", matchIfMissing = true)
+public class VisionSafeSearchService implements ImageModerationService {
 
     private final ResourceLoader resourceLoader;
+    private final MediaFingerprintCache fingerprintCache;
     private final String googleCredentialsPath;
+    private final long callTimeoutMs;
+    private final Semaphore concurrentCalls;
+
+    private volatile ImageAnnotatorClient client;
 
     public VisionSafeSearchService(
             @Value("${google.vision.credentials-path}") String googleCredentialsPath,
-            ResourceLoader resourceLoader
+            @Value("${google.vision.call-timeout-ms:10000}") long callTimeoutMs,
+            @Value("${google.vision.max-concurrent-calls:4}") int maxConcurrentCalls,
+            ResourceLoader resourceLoader,
+            MediaFingerprintCache fingerprintCache
     ) {
         this.resourceLoader = resourceLoader;
+        this.fingerprintCache = fingerprintCache;
         this.googleCredentialsPath = googleCredentialsPath;
+        this.callTimeoutMs = callTimeoutMs;
+        this.concurrentCalls = new Semaphore(maxConcurrentCalls);
     }
 
     /**
      * Analyzes an image using Google Cloud Vision API to verify if it contains inappropriate content.
-     * Loads credentials from the configured JSON file.
-     * 
-     * @param file MultipartFile (uploaded image)
+     *
+     * @param image Uploaded image, read once into memory
      * @return true if the image is safe, false if it contains sensitive content
      */
-    public boolean isImageSafe(MultipartFile file) throws IOException {
-        // Load credentials from the JSON file
-        Resource credentialsResource = resourceLoader.getResource(googleCredentialsPath);
-        GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsResource.getInputStream())
-                .createScoped("https://www.googleapis.com/auth/cloud-platform");
-        
-        // Create Vision API client with credentials
-        ImageAnnotatorSettings settings = ImageAnnotatorSettings.newBuilder()
-                .setCredentialsProvider(() -> credentials)
-                .build();
-        
-        try (ImageAnnotatorClient vision = ImageAnnotatorClient.create(settings)) {
-            ByteString imgBytes = ByteString.readFrom(file.getInputStream());
-            Image img = Image.newBuilder().setContent(imgBytes).build();
-
-            Feature feature = Feature.newBuilder().setType(Feature.Type.SAFE_SEARCH_DETECTION).build();
-            AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
-                    .addFeatures(feature)
-                    .setImage(img)
-                    .build();
-
-            SafeSearchAnnotation annotation = vision.batchAnnotateImages(List.of(request))
-                    .getResponses(0)
-                    .getSafeSearchAnnotation();
-
-            return Stream.of(
-                    annotation.getAdult(),
-                    annotation.getViolence(),
-                    annotation.getRacy(),
-                    annotation.getMedical()
-            ).allMatch(likelihood -> likelihood != Likelihood.LIKELY && likelihood != Likelihood.VERY_LIKELY);
+    @Override
+    public boolean isImageSafe(UploadBuffer image) throws IOException {
+        String hash = image.sha256();
+        Boolean cachedVerdict = fingerprintCache.findVerdicts(List.of(hash)).get(hash);
+        if (cachedVerdict != null) {
+            return cachedVerdict;
+        }
+
+        AnnotateImageResponse response = annotate(List.of(buildRequest(image))).get(0);
+        boolean safe = isSafe(response);
+        if (!response.hasError()) {
+            fingerprintCache.rememberVerdict(hash, safe);
         }
+        return safe;
     }
 
     /**
-     * Validates multiple images for inappropriate content
-     * 
+     * Validates multiple images for inappropriate content.
+     * Images with a cached verdict are not sent again; the rest go in a single batch call.
+     *
      * @param images List of images to validate
      * @throws ResponseStatusException if any image contains inappropriate content or validation fails
      */
-    public void validateImages(List<MultipartFile> images) {
+    @Override
+    public void validateImages(List<UploadBuffer> images) {
         if (images == null || images.isEmpty()) {
             return;
         }
 
-        if (images.size() > 10) {
+        if (images.size() > MAX_IMAGES) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximum 10 images allowed");
         }
 
-        for (MultipartFile image : images) {
-            try {
-                if (!isImageSafe(image)) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "Image contains inappropriate content and cannot be uploaded");
+        try {
+            // 1. Hash every image, skipping duplicates within the request
+            Map<String, UploadBuffer> imagesByHash = new LinkedHashMap<>();
+            for (UploadBuffer image : images) {
+                imagesByHash.putIfAbsent(image.sha256(), image);
+            }
+
+            // 2. Reject on a cached unsafe verdict without calling Vision
+            Map<String, Boolean> cachedVerdicts = fingerprintCache.findVerdicts(imagesByHash.keySet());
+            if (cachedVerdicts.containsValue(Boolean.FALSE)) {
+                throw inappropriateContent();
+            }
+            imagesByHash.keySet().removeAll(cachedVerdicts.keySet());
+            if (imagesByHash.isEmpty()) {
+                return;
+            }
+
+            // 3. Moderate the unknown images in one batch call
+            List<String> hashes = new ArrayList<>(imagesByHash.keySet());
+            List<AnnotateImageRequest> requests = new ArrayList<>(hashes.size());
+            for (UploadBuffer image : imagesByHash.values()) {
+                requests.add(buildRequest(image));
+            }
+            List<AnnotateImageResponse> responses = annotate(requests);
+
+            // 4. Remember every verdict before deciding, unsafe ones included
+            boolean allSafe = true;
+            for (int i = 0; i < responses.size(); i++) {
+                AnnotateImageResponse response = responses.get(i);
+                if (response.hasError()) {
+                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error validating image: " + response.getError().getMessage());
                 }
-            } catch (IOException e) {
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                    "Error validating image: " + e.getMessage());
+                boolean safe = isSafe(response);
+                fingerprintCache.rememberVerdict(hashes.get(i), safe);
+                allSafe &= safe;
+            }
+            if (!allSafe) {
+                throw inappropriateContent();
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Error validating image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the shared annotator client on shutdown
+     */
+    @PreDestroy
+    public void close() {
+        ImageAnnotatorClient current = client;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Sends the requests in one batchAnnotateImages call, limited in concurrency and time.
+     * Waiting for a call slot and waiting for the response share one deadline.
+     */
+    private List<AnnotateImageResponse> annotate(List<AnnotateImageRequest> requests) throws IOException {
+        BatchAnnotateImagesRequest batchRequest = BatchAnnotateImagesRequest.newBuilder()
+                .addAllRequests(requests)
+                .build();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+        boolean acquired = false;
+        ApiFuture<BatchAnnotateImagesResponse> call = null;
+        try {
+            acquired = concurrentCalls.tryAcquire(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Image moderation is busy, please try again");
+            }
+
+            call = getClient().batchAnnotateImagesCallable().futureCall(batchRequest);
+            return call.get(remainingNanos(deadline), TimeUnit.NANOSECONDS).getResponsesList();
+        } catch (InterruptedException e) {
+            cancel(call);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating images", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Vision API call failed", e.getCause());
+        } catch (TimeoutException e) {
+            // Abandoning the call would leave the RPC running after the slot is released
+            cancel(call);
+            throw new IOException("Vision API call timed out", e);
+        } finally {
+            if (acquired) {
+                concurrentCalls.release();
+            }
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void cancel(ApiFuture<?> call) {
+        if (call != null) {
+            call.cancel(true);
+        }
+    }
+
+    private AnnotateImageRequest buildRequest(UploadBuffer image) {
+        // Wraps the read-only view instead of copying the bytes into the request
+        Image img = Image.newBuilder()
+                .setContent(UnsafeByteOperations.unsafeWrap(image.asReadOnlyByteBuffer()))
+                .build();
+
+        Feature feature = Feature.newBuilder().setType(Feature.Type.SAFE_SEARCH_DETECTION).build();
+        return AnnotateImageRequest.newBuilder()
+                .addFeatures(feature)
+                .setImage(img)
+                .build();
+    }
+
+    private ResponseStatusException inappropriateContent() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Image contains inappropriate content and cannot be uploaded");
+    }
+
+    private boolean isSafe(AnnotateImageResponse response) {
+        SafeSearchAnnotation annotation = response.getSafeSearchAnnotation();
+        return Stream.of(
+                annotation.getAdult(),
+                annotation.getViolence(),
+                annotation.getRacy(),
+                annotation.getMedical()
+        ).allMatch(likelihood -> likelihood != Likelihood.LIKELY && likelihood != Likelihood.VERY_LIKELY);
+    }
+
+    /**
+     * Creates the annotator client on first use, loading the credentials only once
+     */
+    private ImageAnnotatorClient getClient() throws IOException {
+        ImageAnnotatorClient current = client;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (client == null) {
+                Resource credentialsResource = resourceLoader.getResource(googleCredentialsPath);
+                GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsResource.getInputStream())
+                        .createScoped("https://www.googleapis.com/auth/cloud-platform");
+
+                ImageAnnotatorSettings settings = ImageAnnotatorSettings.newBuilder()
+                        .setCredentialsProvider(() -> credentials)
+                        .build();
+
+                client = ImageAnnotatorClient.create(settings);
             }
+            return client;
         }
     }
-}
\ No newline at end of file
+}
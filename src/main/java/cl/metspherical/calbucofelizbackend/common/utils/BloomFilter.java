@@ -0,0 +1,81 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of UUIDs: a negative answer is certain, a positive answer may
+ * be a false positive with about the configured probability.
+ * Sized from the expected number of insertions; bit indexes are derived by
+ * double hashing the two halves of the UUID, so lookups do not allocate.
+ * Safe for concurrent readers and writers.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * Creates an empty filter
+     *
+     * @param expectedInsertions Number of elements the filter is sized for
+     * @param falsePositiveRate Target false positive probability (between 0 and 1)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter size");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (optimalBits + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    /**
+     * Adds an element
+     *
+     * @param value Element to add
+     */
+    public void put(UUID value) {
+        long hash1 = mix(value.getMostSignificantBits());
+        long hash2 = mix(value.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Tests whether an element may have been added
+     *
+     * @param value Element to test
+     * @return false if the element was certainly never added
+     */
+    public boolean mightContain(UUID value) {
+        long hash1 = mix(value.getMostSignificantBits());
+        long hash2 = mix(value.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads the UUID bits before indexing
+     */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
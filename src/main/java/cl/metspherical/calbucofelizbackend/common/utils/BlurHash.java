@@ -0,0 +1,140 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * BlurHash encoder (https://blurha.sh): a few DCT components of an image packed
+ * into a short base83 string that clients decode into a blurred placeholder.
+ * The image is shrunk to a tiny sample first, so encoding is cheap.
+ */
+public final class BlurHash {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final int SAMPLE_SIZE = 32;
+
+    private BlurHash() {
+    }
+
+    /**
+     * Encodes an image as a BlurHash
+     *
+     * @param image Decoded image
+     * @param componentsX Horizontal components (1-9)
+     * @param componentsY Vertical components (1-9)
+     * @return BlurHash string of 6 + 2 * (componentsX * componentsY - 1) characters
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+        }
+
+        // 1. Shrink to a small sample, keeping the aspect ratio
+        double ratio = Math.min(1.0, (double) SAMPLE_SIZE / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        int[] pixels = sample(image, width, height);
+
+        // 2. Linear-light DCT factors
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = factor(pixels, width, height, i, j);
+            }
+        }
+
+        // 3. Pack size flag, AC maximum, DC and quantized AC components
+        StringBuilder hash = new StringBuilder();
+        appendBase83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            appendBase83(hash, quantisedMaximum, 1);
+        } else {
+            appendBase83(hash, 0, 1);
+        }
+
+        appendBase83(hash, encodeDC(factors[0]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            appendBase83(hash, encodeAC(factors[k], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static int[] sample(BufferedImage image, int width, int height) {
+        BufferedImage sample = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = sample.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        g2d.drawImage(image, 0, 0, width, height, null);
+        g2d.dispose();
+        return sample.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    private static double[] factor(int[] pixels, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        double normalisation = (i == 0 && j == 0) ? 1 : 2;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double basis = normalisation
+                        * Math.cos(Math.PI * i * x / width)
+                        * Math.cos(Math.PI * j * y / height);
+                int rgb = pixels[y * width + x];
+                r += basis * srgbToLinear((rgb >> 16) & 0xFF);
+                g += basis * srgbToLinear((rgb >> 8) & 0xFF);
+                b += basis * srgbToLinear(rgb & 0xFF);
+            }
+        }
+
+        double scale = 1.0 / (width * height);
+        return new double[]{r * scale, g * scale, b * scale};
+    }
+
+    private static int encodeDC(double[] value) {
+        return (linearToSrgb(value[0]) << 16) + (linearToSrgb(value[1]) << 8) + linearToSrgb(value[2]);
+    }
+
+    private static int encodeAC(double[] value, double maximumValue) {
+        int quantR = quantiseAC(value[0] / maximumValue);
+        int quantG = quantiseAC(value[1] / maximumValue);
+        int quantB = quantiseAC(value[2] / maximumValue);
+        return quantR * 19 * 19 + quantG * 19 + quantB;
+    }
+
+    private static int quantiseAC(double value) {
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(value)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void appendBase83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+}
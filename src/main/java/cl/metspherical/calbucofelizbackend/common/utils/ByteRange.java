@@ -0,0 +1,61 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+/**
+ * Single byte range of an HTTP Range header (RFC 9110), with inclusive bounds
+ *
+ * @param start First byte
+ * @param end Last byte
+ */
+public record ByteRange(long start, long end) {
+
+    /**
+     * @return Number of bytes in the range
+     */
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Parses a Range header against a representation of the given length.
+     * Only single ranges are honored; multiple ranges and malformed headers are
+     * ignored, which lets the server answer with the whole representation.
+     *
+     * @param header Value of the Range header
+     * @param length Length of the representation in bytes
+     * @return The range clamped to the representation, or null if the header must be ignored
+     * @throws IllegalArgumentException if the range is syntactically valid but not satisfiable
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+
+        try {
+            // Suffix range: the last n bytes
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0) {
+                    throw new IllegalArgumentException("Unsatisfiable range: " + header);
+                }
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+
+            long start = Long.parseLong(spec.substring(0, dash));
+            String last = spec.substring(dash + 1);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+
+            if (start >= length) {
+                throw new IllegalArgumentException("Unsatisfiable range: " + header);
+            }
+            return end >= start ? new ByteRange(start, end) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
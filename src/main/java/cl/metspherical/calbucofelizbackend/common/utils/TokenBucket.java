@@ -0,0 +1,65 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter shared by several threads.
+ * Tokens refill continuously at a fixed rate up to a burst capacity. A caller
+ * that finds the bucket empty reserves the next token and sleeps until it is
+ * due, so waiting callers are served in the order they arrived and the rate
+ * holds without busy retries.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double available;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond Sustained rate
+     * @param burst Tokens that can be taken at once after an idle period
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.nanoClock = nanoClock;
+        this.available = burst;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token, sleeping until one is available
+     *
+     * @throws InterruptedException if interrupted while waiting; the reserved token is lost
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token, possibly one that has not refilled yet
+     *
+     * @return Nanoseconds until the taken token is due (0 if it was available)
+     */
+    synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        available = Math.min(capacity, available + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        available -= 1;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / tokensPerNano);
+    }
+}
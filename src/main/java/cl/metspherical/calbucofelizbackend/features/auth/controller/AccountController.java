@@ -4,8 +4,10 @@ import cl.metspherical.calbucofelizbackend.common.security.utils.SecurityUtils;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.ProfileResponseDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.UserEditRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.UserProfileResponseDTO;
-import cl.metspherical.calbucofelizbackend.common.service.VisionSafeSearchService;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
 import cl.metspherical.calbucofelizbackend.common.service.ImageCompressionService;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.common.service.UploadBuffer;
 import cl.metspherical.calbucofelizbackend.features.auth.service.AccountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,7 +23,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AccountController {
 
-    private final VisionSafeSearchService visionSafeSearchService;
+    private final ImageModerationService imageModerationService;
     private final ImageCompressionService imageCompressionService;
     private final AccountService accountService;   
     
@@ -36,12 +38,14 @@ public class AccountController {
 
         UUID userId = SecurityUtils.getCurrentUserId();
 
-        byte[] processedAvatar = null;
+        ProcessedImage processedAvatar = null;
 
         if (avatar != null && !avatar.isEmpty()) {
-            visionSafeSearchService.validateImages(List.of(avatar));
+            UploadBuffer avatarBuffer = UploadBuffer.read(avatar);
 
-            processedAvatar = imageCompressionService.compressImage(avatar);
+            imageModerationService.validateImages(List.of(avatarBuffer));
+
+            processedAvatar = imageCompressionService.compressAvatar(avatarBuffer);
         }
 
         UserEditRequestDTO request = new UserEditRequestDTO(
@@ -4,6 +4,7 @@ import cl.metspherical.calbucofelizbackend.features.auth.dto.*;
 import cl.metspherical.calbucofelizbackend.features.auth.service.AuthenticationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -62,6 +63,22 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequestDTO request) {
+
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        authenticationService.logout(
+                authorization.substring("Bearer ".length()),
+                request != null ? request.refreshToken() : null
+        );
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/password-recover")
     public ResponseEntity<Void> recovery(@Valid @RequestBody RecoveryRequestDTO request) {
         authenticationService.recoverPassword(request);
@@ -1,8 +1,10 @@
 package cl.metspherical.calbucofelizbackend.features.auth.dto;
 
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+
 public record UserEditRequestDTO(
         String username,
-        byte[] avatar,
+        ProcessedImage avatar,
         String description,
         String names,
         String lastNames,
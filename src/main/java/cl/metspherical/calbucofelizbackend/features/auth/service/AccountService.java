@@ -5,7 +5,9 @@ import cl.metspherical.calbucofelizbackend.features.auth.dto.UserEditRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.UserProfileResponseDTO;
 import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
-import cl.metspherical.calbucofelizbackend.common.service.CloudinaryUploadService;
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,7 +23,7 @@ import java.util.UUID;
 public class AccountService {
 
     private final UserRepository userRepository;
-    private final CloudinaryUploadService cloudinaryUploadService;
+    private final MediaStorage mediaStorage;
     private final PasswordEncoder passwordEncoder;
 
     /**
@@ -90,13 +92,15 @@ public class AccountService {
     }
 
     /**
-     * Updates user avatar by uploading to Cloudinary
+     * Updates user avatar by uploading its renditions to media storage
      */
-    private void updateAvatar(byte[] avatar, User user) {
-        if (avatar != null && avatar.length > 0) {
+    private void updateAvatar(ProcessedImage avatar, User user) {
+        if (avatar != null && avatar.full().length > 0) {
             try {
-                String avatarUrl = cloudinaryUploadService.uploadImage(avatar);
+                String avatarUrl = mediaStorage.uploadImage(avatar.full());
+                byte[] avatarSmall = avatar.renditions().get(ImageVariant.AVATAR_SMALL);
                 user.setAvatar(avatarUrl);
+                user.setAvatarSmall(avatarSmall != null ? mediaStorage.uploadImage(avatarSmall) : null);
             } catch (IOException e) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Error uploading avatar: " + e.getMessage());
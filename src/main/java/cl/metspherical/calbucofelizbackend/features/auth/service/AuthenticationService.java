@@ -1,6 +1,10 @@
 package cl.metspherical.calbucofelizbackend.features.auth.service;
 
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
 import cl.metspherical.calbucofelizbackend.common.security.service.JwtService;
+import cl.metspherical.calbucofelizbackend.common.security.service.PasswordHashingService;
+import cl.metspherical.calbucofelizbackend.common.security.service.TokenRevocationService;
+import cl.metspherical.calbucofelizbackend.common.service.SmsOutboxService;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.LoginRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.RegisterRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.RecoveryRequestDTO;
@@ -9,23 +13,24 @@ import cl.metspherical.calbucofelizbackend.features.auth.utils.PhoneValidator;
 import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.security.SecureRandom;
 
 /**
  * Service responsible for handling user authentication operations
  * including registration, login, token refresh, and password recovery functionality
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
@@ -33,8 +38,9 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    private final TwilioService twilioService;
+    private final PasswordHashingService passwordHashingService;
+    private final SmsOutboxService smsOutboxService;
+    private final TokenRevocationService tokenRevocationService;
     private static final String ACCESS_TOKEN_KEY = "accessToken";
     private static final String REFRESH_TOKEN_KEY = "refreshToken";
     private static final String USERNAME_KEY = "username";
@@ -97,17 +103,25 @@ public class AuthenticationService {
      * @return Map containing access token, refresh token and username
      */
     public Map<String, String> login(LoginRequestDTO request) {
-        // Authenticate user credentials
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.rut(),
-                        request.password()
-                )
-        );        
-        
-        // Find authenticated user
-        User user = userRepository.findByRut(request.rut())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+        // 1. One query loads the user and the roles the access token needs
+        User user = userRepository.findByRutWithRoles(request.rut()).orElse(null);
+
+        // 2. BCrypt runs on the bounded hashing executor (429 when saturated)
+        if (!passwordHashingService.matches(request.password(), user != null ? user.getPassword() : null)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        }
+
+        // 3. Transparently rehash passwords stored with an older cost factor; best effort, so a
+        //    saturated executor only postpones the rehash to a later login instead of refusing this one
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                user.setPassword(passwordHashingService.encode(request.password()));
+                userRepository.save(user);
+            } catch (ResponseStatusException e) {
+                log.debug("Skipped password rehash for user {}: {}", user.getId(), e.getReason());
+            }
+        }
+
         // Generate new authentication tokens
         String accessToken = jwtService.generateAccessToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
@@ -127,9 +141,12 @@ public class AuthenticationService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
         }
 
-        // Extract user information from token
-        UUID id = jwtService.extractUserId(refreshToken);
-        User user = userRepository.getReferenceById((id));
+        // Extract user information from token; refresh tokens issued before a logout or password reset are refused
+        JwtPrincipal principal = jwtService.verify(refreshToken);
+        if (tokenRevocationService.isRevoked(principal)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
+        }
+        User user = userRepository.getReferenceById(principal.userId());
 
         // Generate new access token
         String newAccessToken = jwtService.generateAccessToken(user);
@@ -138,11 +155,38 @@ public class AuthenticationService {
     }
 
     /**
-     * Handles password recovery by validating user data and sending temporary password via SMS
+     * Logs out by revoking the access token and, if given, the refresh token of the session
+     *
+     * @param accessToken Access token of the session
+     * @param refreshToken Refresh token of the session, may be null
+     * @throws ResponseStatusException if the access token is not valid
+     */
+    public void logout(String accessToken, String refreshToken) {
+        JwtPrincipal principal;
+        try {
+            principal = jwtService.verify(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
+        }
+        tokenRevocationService.revoke(principal);
+
+        // The refresh token is only revoked if it belongs to the same user
+        if (refreshToken != null && jwtService.isRefreshTokenValid(refreshToken)) {
+            JwtPrincipal refreshPrincipal = jwtService.verify(refreshToken);
+            if (refreshPrincipal.userId().equals(principal.userId())) {
+                tokenRevocationService.revoke(refreshPrincipal);
+            }
+        }
+    }
+
+    /**
+     * Handles password recovery by validating user data and queueing the temporary password for SMS delivery.
+     * The new password and the SMS are committed together, so the resident always receives the password that was set.
      *
      * @param request DTO containing RUT and phone number for recovery
-     * @throws ResponseStatusException if validation fails or SMS sending fails
+     * @throws ResponseStatusException if validation fails
      */
+    @Transactional
     public void recoverPassword(RecoveryRequestDTO request) {
         try {
 
@@ -158,13 +202,20 @@ public class AuthenticationService {
             // Generate secure 8-digit temporary password
             String temporaryPassword = generateTemporaryPassword();
 
-            // Send SMS with temporary password
-            twilioService.sendPasswordRecoverySms("+56"+request.phone(), temporaryPassword);
-
-            user.setPassword(passwordEncoder.encode(temporaryPassword));
+            // BCrypt runs on the bounded hashing executor (429 when saturated)
+            user.setPassword(passwordHashingService.encode(temporaryPassword));
             userRepository.save(user);
 
+            // Queue SMS with temporary password; SmsDispatcher sends it after commit
+            smsOutboxService.enqueuePasswordRecovery("+56"+request.phone(), temporaryPassword);
+
+            // Sessions opened with the old password must not survive the reset
+            tokenRevocationService.revokeAllForUser(user.getId());
+
         } catch (ResponseStatusException  e) {
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                throw e;
+            }
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Error during password recovery for RUT"+request.rut()+e.getMessage());
         }
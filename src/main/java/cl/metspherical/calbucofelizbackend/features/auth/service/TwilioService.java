@@ -1,9 +1,12 @@
 package cl.metspherical.calbucofelizbackend.features.auth.service;
 
+import cl.metspherical.calbucofelizbackend.common.service.SmsGateway;
 import com.twilio.Twilio;
+import com.twilio.exception.ApiException;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -11,10 +14,11 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
- * Service for sending SMS messages using Twilio
+ * Service for sending SMS messages using Twilio (sms.provider=twilio)
  */
 @Service
-public class TwilioService {
+@ConditionalOnProperty(name = "sms.provider", havingValue = "twilio", matchIfMissing = true)
+public class TwilioService implements SmsGateway {
 
     @Value("${twilio.account-sid}")
     private String accountSid;
@@ -36,8 +40,10 @@ public class TwilioService {
      * @param toPhoneNumber The recipient's phone number (must include country code, e.g., +56912345678)
      * @param messageBody The message content
      * @return Message SID if successful
-     * @throws RuntimeException if message sending fails
+     * @throws ResponseStatusException BAD_REQUEST if Twilio refused the message,
+     *         SERVICE_UNAVAILABLE if sending failed otherwise
      */
+    @Override
     public String sendSms(String toPhoneNumber, String messageBody) {
         try {
             Message message = Message.creator(
@@ -49,22 +55,15 @@ public class TwilioService {
 
 
             return message.getSid();
+        } catch (ApiException e) {
+            // Twilio rejects invalid or unreachable numbers with a 4xx; 429 means slow down and retry
+            Integer status = e.getStatusCode();
+            HttpStatus httpStatus = status != null && status >= 400 && status < 500 && status != 429
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            throw new ResponseStatusException(httpStatus, "Failed to send SMS: " + e.getMessage());
         } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,"Failed to send SMS: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Failed to send SMS: " + e.getMessage());
         }
     }
-
-    /**
-     * Sends a password recovery SMS with the temporary password
-     *
-     * @param phoneNumber The recipient's phone number
-     * @param temporaryPassword The temporary password to send
-     * @return Message SID if successful
-     */
-    public String sendPasswordRecoverySms(String phoneNumber, String temporaryPassword) {
-        String messageBody = String.format(
-                "Codigo para CalbucoFeliz es: %s", temporaryPassword
-        );
-        return sendSms(phoneNumber, messageBody);
-    }
 }
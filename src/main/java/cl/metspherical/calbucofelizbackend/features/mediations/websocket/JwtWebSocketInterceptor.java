@@ -1,6 +1,8 @@
 package cl.metspherical.calbucofelizbackend.features.mediations.websocket;
 
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
 import cl.metspherical.calbucofelizbackend.common.security.service.JwtService;
+import cl.metspherical.calbucofelizbackend.common.security.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
@@ -12,13 +14,13 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.util.Map;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class JwtWebSocketInterceptor implements HandshakeInterceptor {
 
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     public boolean beforeHandshake(@NonNull ServerHttpRequest request, 
@@ -28,13 +30,16 @@ public class JwtWebSocketInterceptor implements HandshakeInterceptor {
 
         String token = extractTokenFromRequest(request);
 
-        if (token != null && jwtService.isTokenValid(token)) {
+        if (token != null) {
             try {
-                UUID userId = jwtService.extractUserId(token);
-                String username = jwtService.extractUsername(token);
+                JwtPrincipal principal = jwtService.verify(token);
+                if (tokenRevocationService.isRevoked(principal)) {
+                    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return false;
+                }
 
-                attributes.put("userId", userId);
-                attributes.put("username", username);
+                attributes.put("userId", principal.userId());
+                attributes.put("username", principal.username());
                 attributes.put("token", token);
 
                 return true;
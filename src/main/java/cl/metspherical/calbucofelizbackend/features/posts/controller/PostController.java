@@ -1,15 +1,20 @@
 package cl.metspherical.calbucofelizbackend.features.posts.controller;
 
 import cl.metspherical.calbucofelizbackend.features.posts.dto.*;
+import cl.metspherical.calbucofelizbackend.features.posts.service.DirectUploadService;
 import cl.metspherical.calbucofelizbackend.features.posts.service.PostService;
 import cl.metspherical.calbucofelizbackend.common.security.utils.SecurityUtils;
-import cl.metspherical.calbucofelizbackend.common.service.VisionSafeSearchService;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
 import cl.metspherical.calbucofelizbackend.common.service.ImageCompressionService;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.common.service.ResumableUploadService;
+import cl.metspherical.calbucofelizbackend.common.service.UploadBuffer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,20 +28,50 @@ import java.util.UUID;
 public class PostController {
 
     private final PostService postService;
-    private final VisionSafeSearchService visionSafeSearchService;
+    private final DirectUploadService directUploadService;
+    private final ResumableUploadService resumableUploadService;
+    private final ImageModerationService imageModerationService;
     private final ImageCompressionService imageCompressionService;    
 
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<Map<String, UUID>> createPost(
             @RequestParam(value = "content", required = false) String content,
             @RequestParam(value = "categoryNames", required = false) Set<String> categoryNames,
-            @RequestParam(value = "images", required = false) List<MultipartFile> images) {
+            @RequestParam(value = "images", required = false) List<MultipartFile> images,
+            @RequestParam(value = "uploadIds", required = false) List<UUID> uploadIds,
+            @RequestParam(value = "async", defaultValue = "false") boolean async) {
 
         UUID authorId = SecurityUtils.getCurrentUserId();
-
-        visionSafeSearchService.validateImages(images);
-
-        List<byte[]> processedImages = imageCompressionService.compressImages(images);
+        postService.validateCategoryNames(categoryNames);
+
+        // Count the images before reading any of them into memory
+        int imageCount = (images != null ? images.size() : 0) + (uploadIds != null ? uploadIds.size() : 0);
+        if (imageCount > ImageModerationService.MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximum 10 images allowed");
+        }
+
+        // Each part is read once; moderation and compression share the same bytes
+        List<UploadBuffer> imageBuffers = UploadBuffer.readAll(images);
+        // Completed resumable uploads are attached after the multipart images
+        imageBuffers.addAll(resumableUploadService.readCompleted(authorId, uploadIds));
+
+        // Async mode: the post stays PENDING until a media worker publishes or rejects it
+        if (async) {
+            CreatePostRequestDTO pendingRequest = new CreatePostRequestDTO(
+                    authorId,
+                    content,
+                    categoryNames,
+                    List.of()
+            );
+            UUID postId = postService.createPendingPost(pendingRequest, imageBuffers);
+            resumableUploadService.delete(authorId, uploadIds);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("postId", postId));
+        }
+
+        imageModerationService.validateImages(imageBuffers);
+
+        List<ProcessedImage> processedImages = imageCompressionService.compressImages(imageBuffers);
 
         CreatePostRequestDTO request = new CreatePostRequestDTO(
                 authorId,
@@ -46,10 +81,37 @@ public class PostController {
         );
 
         UUID postId = postService.createPost(request);
+        resumableUploadService.delete(authorId, uploadIds);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(Map.of("postId", postId));
     }
 
+    @PostMapping("/uploads")
+    public ResponseEntity<List<SignedUploadDTO>> signUploads(
+            @RequestParam(defaultValue = "1") Integer count) {
+
+        UUID userId = SecurityUtils.getCurrentUserId();
+        List<SignedUploadDTO> uploads = directUploadService.issue(userId, count);
+        return ResponseEntity.ok(uploads);
+    }
+
+    @PostMapping("/direct")
+    public ResponseEntity<Map<String, UUID>> createDirectPost(@RequestBody CreateDirectPostInputDTO input) {
+        UUID authorId = SecurityUtils.getCurrentUserId();
+
+        // Images are already in Cloudinary; the post stays PENDING until they are moderated
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                authorId,
+                input.content(),
+                input.categoryNames(),
+                List.of()
+        );
+
+        UUID postId = postService.createPendingStoredPost(request, input.publicIds());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("postId", postId));
+    }
+
     @GetMapping()
     public ResponseEntity<PostPaginatedResponseDTO> getPostsPaginated(
             @RequestParam Integer page, 
@@ -61,12 +123,39 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/feed")
+    public ResponseEntity<PostFeedResponseDTO> getPostsFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String username) {
+
+        PostFeedResponseDTO response = postService.getPostsFeed(cursor, size, category, username);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryDTO>> suggestCategories(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") Integer limit) {
+
+        List<CategoryDTO> categories = postService.suggestCategories(prefix, limit);
+        return ResponseEntity.ok(categories);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PostDetailDTO> getPost(@PathVariable UUID id) {
         PostDetailDTO post = postService.getPostById(id);
         return ResponseEntity.ok(post);
     }
 
+    @GetMapping("/{id}/status")
+    public ResponseEntity<PostStatusDTO> getPostStatus(@PathVariable UUID id) {
+        UUID userId = SecurityUtils.getCurrentUserId();
+        PostStatusDTO status = postService.getPostStatus(id, userId);
+        return ResponseEntity.ok(status);
+    }
+
     @GetMapping("/{id}/comments")
     public ResponseEntity<PostCommentsResponseDTO> getPostComments(@PathVariable UUID id) {
         PostCommentsResponseDTO comments = postService.getCommentsByPostId(id);
@@ -116,6 +205,13 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{postId}/like")
+    public ResponseEntity<Map<String, Boolean>> getLikeStatus(@PathVariable UUID postId) {
+        UUID userId = SecurityUtils.getCurrentUserId();
+        boolean liked = postService.isPostLikedBy(postId, userId);
+        return ResponseEntity.ok(Map.of("like", liked));
+    }
+
     @DeleteMapping("/{postId}/like")
     public ResponseEntity<Void> unlikePost(@PathVariable UUID postId) {
         UUID userId = SecurityUtils.getCurrentUserId();
@@ -5,6 +5,7 @@ import java.util.List;
 public record AuthorDTO (
     String username,
     String avatar,
+    String avatarSmall,
     List<String> roles
 ) {
 }
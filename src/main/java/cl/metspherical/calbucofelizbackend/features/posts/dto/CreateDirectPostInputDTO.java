@@ -0,0 +1,11 @@
+package cl.metspherical.calbucofelizbackend.features.posts.dto;
+
+import java.util.List;
+import java.util.Set;
+
+public record CreateDirectPostInputDTO(
+    String content,
+    Set<String> categoryNames,
+    List<String> publicIds
+) {
+}
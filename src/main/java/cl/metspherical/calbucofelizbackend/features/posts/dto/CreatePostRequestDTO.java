@@ -1,5 +1,7 @@
 package cl.metspherical.calbucofelizbackend.features.posts.dto;
 
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -8,7 +10,7 @@ public record CreatePostRequestDTO(
     UUID authorId,
     String content,
     Set<String> categoryNames,
-    List<byte[]> processedImages
+    List<ProcessedImage> processedImages
 ) {
 }
 
@@ -10,6 +10,7 @@ public record PostDetailDTO(
         LocalDateTime createdAt,
         AuthorDTO author,
         List<String> images,
+        List<PostImageDTO> imageVariants,
         List<CategoryDTO> categories,
         Integer likes,
         Integer comments
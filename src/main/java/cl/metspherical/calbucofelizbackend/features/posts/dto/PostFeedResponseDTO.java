@@ -0,0 +1,10 @@
+package cl.metspherical.calbucofelizbackend.features.posts.dto;
+
+import java.util.List;
+
+public record PostFeedResponseDTO(
+        List<PostDetailDTO> posts,
+        Boolean hasNext,
+        String nextCursor
+) {
+}
@@ -0,0 +1,17 @@
+package cl.metspherical.calbucofelizbackend.features.posts.dto;
+
+/**
+ * Renditions of a post image; a missing rendition falls back to the next larger one
+ *
+ * @param thumbnail Up to 320px
+ * @param medium Up to 640px
+ * @param full Up to 1080px
+ * @param placeholder BlurHash to paint while the image loads, may be null
+ */
+public record PostImageDTO(
+        String thumbnail,
+        String medium,
+        String full,
+        String placeholder
+) {
+}
@@ -0,0 +1,12 @@
+package cl.metspherical.calbucofelizbackend.features.posts.dto;
+
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
+
+import java.util.UUID;
+
+public record PostStatusDTO(
+    UUID postId,
+    PostStatus status,
+    String reason
+) {
+}
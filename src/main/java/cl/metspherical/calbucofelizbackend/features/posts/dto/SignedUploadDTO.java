@@ -0,0 +1,15 @@
+package cl.metspherical.calbucofelizbackend.features.posts.dto;
+
+import java.time.LocalDateTime;
+
+public record SignedUploadDTO(
+    String uploadUrl,
+    String apiKey,
+    long timestamp,
+    String signature,
+    String publicId,
+    String allowedFormats,
+    String transformation,
+    LocalDateTime expiresAt
+) {
+}
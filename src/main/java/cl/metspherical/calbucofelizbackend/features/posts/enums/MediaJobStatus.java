@@ -0,0 +1,11 @@
+package cl.metspherical.calbucofelizbackend.features.posts.enums;
+
+/**
+ * State of a media processing job. Published jobs are deleted, so only
+ * waiting, running and failed jobs are stored.
+ */
+public enum MediaJobStatus {
+    QUEUED,
+    RUNNING,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package cl.metspherical.calbucofelizbackend.features.posts.enums;
+
+/**
+ * Publication state of a post. Only PUBLISHED posts are listed or shown to other users.
+ */
+public enum PostStatus {
+    PENDING,
+    PUBLISHED,
+    REJECTED
+}
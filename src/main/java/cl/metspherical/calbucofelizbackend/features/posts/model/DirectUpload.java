@@ -0,0 +1,44 @@
+package cl.metspherical.calbucofelizbackend.features.posts.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Upload slot signed for a user to upload one image straight to Cloudinary
+ */
+@Entity
+@Table(name = "direct_upload")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DirectUpload {
+
+    @Id
+    @Column(name = "public_id", length = 255)
+    private String publicId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "UUID")
+    private UUID userId;
+
+    @Column(
+            name = "expires_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(
+            name = "created_at",
+            nullable = false,
+            updatable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,69 @@
+package cl.metspherical.calbucofelizbackend.features.posts.model;
+
+import cl.metspherical.calbucofelizbackend.common.domain.LeasedTask;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.MediaJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Media processing job of a post created in async mode.
+ * For multipart uploads the ID also names the spool directory holding the raw
+ * images; for direct uploads publicIds lists the assets already in Cloudinary.
+ */
+@Entity
+@Table(name = "media_job")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaJob implements LeasedTask {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "post_id", nullable = false, columnDefinition = "UUID")
+    private UUID postId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "UUID")
+    private UUID authorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private MediaJobStatus status = MediaJobStatus.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(
+            name = "next_attempt_at",
+            nullable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until", columnDefinition = "timestamp with time zone")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "public_ids", columnDefinition = "TEXT")
+    private String publicIds;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(
+            name = "created_at",
+            nullable = false,
+            updatable = false,
+            columnDefinition = "timestamp with time zone")
+    private LocalDateTime createdAt;
+}
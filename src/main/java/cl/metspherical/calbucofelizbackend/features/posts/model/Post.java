@@ -1,6 +1,7 @@
 package cl.metspherical.calbucofelizbackend.features.posts.model;
 
 import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -38,6 +39,19 @@ public class Post {
             columnDefinition = "timestamp with time zone")
     private LocalDateTime createdAt;
 
+    @Column(name = "like_count", nullable = false)
+    @Builder.Default
+    private int likeCount = 0;
+
+    @Column(name = "comment_count", nullable = false)
+    @Builder.Default
+    private int commentCount = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private PostStatus status = PostStatus.PUBLISHED;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(
             name = "user_id",
@@ -45,7 +59,9 @@ public class Post {
             foreignKey = @ForeignKey(name = "fk_post_user"))
     private User author;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // Categories always exist before a post links them (CategoryDictionary creates them),
+    // so they are not cascaded on persist and may be linked as detached instances
+    @ManyToMany(cascade = CascadeType.MERGE)
     @JoinTable(
             name = "post_has_category",
             joinColumns = @JoinColumn(
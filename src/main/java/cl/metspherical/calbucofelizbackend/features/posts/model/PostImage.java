@@ -24,6 +24,15 @@ public class PostImage {
     @Column(name = "url", nullable = false, length = 500)
     private String url;
 
+    @Column(name = "medium_url", length = 500)
+    private String mediumUrl;
+
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Column(name = "placeholder", length = 64)
+    private String placeholder;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(
             name = "post_id",
@@ -5,7 +5,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -16,4 +18,19 @@ public interface CategoryRepository extends JpaRepository<Category, Integer> {
 
     @Query("SELECT c FROM Category c WHERE LOWER(c.name) IN :names")
     Set<Category> findByNamesIgnoreCase(@Param("names") Set<String> names);
+
+    /**
+     * Inserts the given category names in a single statement, skipping names that
+     * already exist (including ones inserted concurrently)
+     *
+     * @param names Normalized category names
+     * @return Categories actually inserted by this statement
+     */
+    @Transactional
+    @Query(value = "INSERT INTO category (name) " +
+            "SELECT unnest(CAST(:names AS varchar[])) " +
+            "ON CONFLICT (name) DO NOTHING " +
+            "RETURNING id, name",
+            nativeQuery = true)
+    List<Category> insertIgnoringExisting(@Param("names") String[] names);
 }
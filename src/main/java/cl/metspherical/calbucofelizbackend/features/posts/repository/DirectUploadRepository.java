@@ -0,0 +1,42 @@
+package cl.metspherical.calbucofelizbackend.features.posts.repository;
+
+import cl.metspherical.calbucofelizbackend.features.posts.model.DirectUpload;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DirectUploadRepository extends JpaRepository<DirectUpload, String> {
+
+    /**
+     * Claims upload slots: deletes the ones that belong to the user and have not expired
+     *
+     * @param userId ID of the user finalizing the post
+     * @param publicIds Public IDs to claim
+     * @param now Current time
+     * @return Number of slots claimed
+     */
+    @Modifying
+    @Query("DELETE FROM DirectUpload d " +
+            "WHERE d.publicId IN :publicIds AND d.userId = :userId AND d.expiresAt > :now")
+    int claim(@Param("userId") UUID userId,
+              @Param("publicIds") Collection<String> publicIds,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Finds slots that expired without being claimed, oldest first
+     *
+     * @param now Current time
+     * @param limit Maximum number of slots to return
+     * @return Expired slots
+     */
+    List<DirectUpload> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,35 @@
+package cl.metspherical.calbucofelizbackend.features.posts.repository;
+
+import cl.metspherical.calbucofelizbackend.features.posts.model.MediaJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MediaJobRepository extends JpaRepository<MediaJob, UUID> {
+
+    Optional<MediaJob> findByPostId(UUID postId);
+
+    /**
+     * Locks the jobs that are due: queued jobs whose next attempt has come and
+     * running jobs whose lease expired. Rows locked by another instance are
+     * skipped, so concurrent workers never claim the same job.
+     * Must run inside a transaction; the locks are held until it commits.
+     *
+     * @param limit Maximum number of jobs to lock
+     * @return Due jobs, oldest first
+     */
+    @Query(value = "SELECT * FROM media_job " +
+            "WHERE (status = 'QUEUED' AND next_attempt_at <= now()) " +
+            "OR (status = 'RUNNING' AND locked_until < now()) " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<MediaJob> lockDueJobs(@Param("limit") int limit);
+}
@@ -33,6 +33,7 @@ public interface PostLikeRepository extends JpaRepository<PostLike, PostLike.Pos
      * 
      * @param postId ID of the post
      * @param userId ID of the user
+     * @return Number of likes deleted
      */
-    void deleteByPost_IdAndUser_Id(UUID postId, UUID userId);
+    long deleteByPost_IdAndUser_Id(UUID postId, UUID userId);
 }
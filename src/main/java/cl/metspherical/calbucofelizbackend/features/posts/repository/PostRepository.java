@@ -1,19 +1,39 @@
 package cl.metspherical.calbucofelizbackend.features.posts.repository;
 
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
 import cl.metspherical.calbucofelizbackend.features.posts.model.Post;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
+    String CATEGORY_FILTER = "(:category = '' OR EXISTS (" +
+            "SELECT 1 FROM Post pc JOIN pc.categories c " +
+            "WHERE pc = p AND LOWER(c.name) LIKE LOWER(CONCAT('%', :category, '%'))))";
+
+    String PUBLISHED_FILTER =
+            "p.status = cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus.PUBLISHED";
+
+    String USERNAME_FILTER = "(:username = '' " +
+            "OR LOWER(a.username) LIKE LOWER(CONCAT('%', :username, '%')) " +
+            "OR LOWER(a.names) LIKE LOWER(CONCAT('%', :username, '%')) " +
+            "OR LOWER(a.lastNames) LIKE LOWER(CONCAT('%', :username, '%')))";
+
     @Query("SELECT p FROM Post p " +
             "JOIN FETCH p.author " +
             "LEFT JOIN FETCH p.categories " +
@@ -21,48 +41,104 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
             "WHERE p.id = :id")
     Optional<Post> findByIdWithDetails(@Param("id") UUID id);
 
-    @Query("SELECT COUNT(l) FROM PostLike l WHERE l.post.id = :postId")
-    long countLikesByPostId(@Param("postId") UUID postId);
+    /**
+     * Loads a post and locks its row until the transaction ends
+     *
+     * @param id ID of the post
+     * @return The locked post, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Post p WHERE p.id = :id")
+    Optional<Post> findByIdForUpdate(@Param("id") UUID id);
 
-    @Query("SELECT COUNT(c) FROM Comment c WHERE c.post.id = :postId")
-    long countCommentsByPostId(@Param("postId") UUID postId);
+    /**
+     * Moves a post from one status to another
+     *
+     * @param id ID of the post
+     * @param from Status the post must currently have
+     * @param to New status
+     * @return 1 if the post was updated, 0 if it does not exist or has another status
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.status = :to WHERE p.id = :id AND p.status = :from")
+    int updateStatus(@Param("id") UUID id, @Param("from") PostStatus from, @Param("to") PostStatus to);
 
-    @Query("SELECT p FROM Post p " +
-            "JOIN FETCH p.author " +
-            "LEFT JOIN FETCH p.categories " +
-            "LEFT JOIN FETCH p.images " +
-            "ORDER BY p.createdAt DESC")
-    Page<Post> findAllPostsWithDetails(Pageable pageable);
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+    int adjustLikeCount(@Param("postId") UUID postId, @Param("delta") int delta);
 
-    @Query("SELECT p FROM Post p " +
-            "JOIN FETCH p.author " +
-            "LEFT JOIN FETCH p.categories c " +
-            "LEFT JOIN FETCH p.images " +
-            "WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :category, '%')) " +
-            "ORDER BY p.createdAt DESC")
-    Page<Post> findPostsByCategoryWithDetails(@Param("category") String category, Pageable pageable);
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") UUID postId, @Param("delta") int delta);
 
-    @Query("SELECT p FROM Post p " +
-            "JOIN FETCH p.author a " +
+    /**
+     * Recomputes like_count and comment_count from post_like and comment,
+     * touching only the rows whose stored value has drifted.
+     *
+     * @return Number of posts whose counters were corrected
+     */
+    @Modifying
+    @Query(value = "UPDATE post p " +
+            "SET like_count = counts.likes, comment_count = counts.comments " +
+            "FROM (SELECT p2.id, " +
+            "        (SELECT COUNT(*) FROM post_like l WHERE l.post_id = p2.id) AS likes, " +
+            "        (SELECT COUNT(*) FROM comment c WHERE c.post_id = p2.id) AS comments " +
+            "      FROM post p2) counts " +
+            "WHERE p.id = counts.id " +
+            "AND (p.like_count <> counts.likes OR p.comment_count <> counts.comments)",
+            nativeQuery = true)
+    int repairCounters();
+
+    /**
+     * Batch-loads posts with author, categories and images for a page of IDs.
+     * Ordering is not guaranteed; callers re-order by the ID page.
+     *
+     * @param ids IDs of the posts to load
+     * @return List of posts with their details fetched
+     */
+    @Query("SELECT DISTINCT p FROM Post p " +
+            "JOIN FETCH p.author " +
             "LEFT JOIN FETCH p.categories " +
             "LEFT JOIN FETCH p.images " +
-            "WHERE LOWER(a.username) LIKE LOWER(CONCAT('%', :username, '%')) " +
-            "OR LOWER(a.names) LIKE LOWER(CONCAT('%', :username, '%')) " +
-            "OR LOWER(a.lastNames) LIKE LOWER(CONCAT('%', :username, '%')) " +
-            "ORDER BY p.createdAt DESC")
-    Page<Post> findPostsByUsernameWithDetails(@Param("username") String username, Pageable pageable);
+            "WHERE p.id IN :ids")
+    List<Post> findAllWithDetailsByIdIn(@Param("ids") Collection<UUID> ids);
 
-    @Query("SELECT p FROM Post p " +
-            "JOIN FETCH p.author a " +
-            "LEFT JOIN FETCH p.categories c " +
-            "LEFT JOIN FETCH p.images " +
-            "WHERE (LOWER(c.name) LIKE LOWER(CONCAT('%', :category, '%'))) " +
-            "AND (LOWER(a.username) LIKE LOWER(CONCAT('%', :username, '%')) " +
-            "OR LOWER(a.names) LIKE LOWER(CONCAT('%', :username, '%')) " +
-            "OR LOWER(a.lastNames) LIKE LOWER(CONCAT('%', :username, '%'))) " +
-            "ORDER BY p.createdAt DESC")
-    Page<Post> findPostsByCategoryAndUsernameWithDetails(
+    /**
+     * Selects one page of published post IDs, newest first. Filters are optional and
+     * skipped when an empty string is passed. No collection is fetched here,
+     * so LIMIT/OFFSET is applied by the database.
+     *
+     * @param category Category filter (similar names) or empty string
+     * @param username Author filter (username, names or lastNames) or empty string
+     * @param pageable Page to select
+     * @return Slice of post IDs ordered by createdAt and id descending
+     */
+    @Query("SELECT p.id FROM Post p JOIN p.author a " +
+            "WHERE " + PUBLISHED_FILTER + " AND " + CATEGORY_FILTER + " AND " + USERNAME_FILTER + " " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<UUID> findPostIds(
             @Param("category") String category,
             @Param("username") String username,
             Pageable pageable);
+
+    /**
+     * Selects the published post IDs that come after the given keyset cursor, newest first.
+     *
+     * @param category Category filter (similar names) or empty string
+     * @param username Author filter (username, names or lastNames) or empty string
+     * @param createdAt Creation date of the last post already returned
+     * @param id ID of the last post already returned
+     * @param limit Maximum number of IDs to return
+     * @return List of post IDs ordered by createdAt and id descending
+     */
+    @Query("SELECT p.id FROM Post p JOIN p.author a " +
+            "WHERE " + PUBLISHED_FILTER + " AND " + CATEGORY_FILTER + " AND " + USERNAME_FILTER + " " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<UUID> findPostIdsBefore(
+            @Param("category") String category,
+            @Param("username") String username,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Limit limit);
 }
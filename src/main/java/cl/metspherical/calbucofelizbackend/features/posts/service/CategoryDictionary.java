@@ -0,0 +1,175 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.features.posts.model.Category;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory dictionary of category names to IDs.
+ * Warmed at startup and refreshed periodically; resolves a whole set of names
+ * with at most one SELECT and one INSERT for the names it has not seen yet,
+ * and serves prefix autocomplete without touching the database.
+ */
+@Component
+public class CategoryDictionary {
+
+    private static final int MAX_NAME_LENGTH = 20;
+
+    private final CategoryRepository categoryRepository;
+    private final Cache<String, Integer> idsByName;
+    private final ConcurrentSkipListMap<String, Integer> prefixIndex = new ConcurrentSkipListMap<>();
+
+    public CategoryDictionary(
+            CategoryRepository categoryRepository,
+            @Value("${posts.categories.dictionary-max-size:50000}") long maxSize) {
+        this.categoryRepository = categoryRepository;
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .removalListener((String name, Integer id, RemovalCause cause) -> {
+                    if (name != null && cause.wasEvicted()) {
+                        prefixIndex.remove(name, id);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Loads every category into memory. Runs at startup and periodically so
+     * categories created by other instances show up in autocomplete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${posts.categories.refresh-interval-ms:600000}",
+            fixedDelayString = "${posts.categories.refresh-interval-ms:600000}")
+    public void reload() {
+        categoryRepository.findAll().forEach(this::remember);
+    }
+
+    /**
+     * Normalizes a category name the same way it is stored
+     *
+     * @param name Raw category name
+     * @return Trimmed, lower-case name
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    /**
+     * Normalizes and validates category names, skipping blank ones
+     *
+     * @param names Raw category names
+     * @return Normalized names
+     * @throws ResponseStatusException if a name exceeds the maximum length
+     */
+    public static Set<String> normalizeAll(Set<String> names) {
+        Set<String> normalizedNames = new HashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            String normalizedName = normalize(name);
+            if (normalizedName.length() > MAX_NAME_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Category name cannot exceed " + MAX_NAME_LENGTH + " characters");
+            }
+            normalizedNames.add(normalizedName);
+        }
+        return normalizedNames;
+    }
+
+    /**
+     * Resolves category names to IDs, creating the missing ones.
+     * Must run inside the caller's transaction; new categories are cached only after it commits.
+     *
+     * @param names Raw category names
+     * @return Category IDs keyed by normalized name
+     * @throws ResponseStatusException if a name exceeds the maximum length
+     */
+    public Map<String, Integer> resolve(Set<String> names) {
+        Set<String> normalizedNames = normalizeAll(names);
+
+        // 1. Names already in memory
+        Map<String, Integer> resolved = new HashMap<>(idsByName.getAllPresent(normalizedNames));
+        Set<String> missing = new HashSet<>(normalizedNames);
+        missing.removeAll(resolved.keySet());
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        // 2. Names created since the last reload
+        addAll(resolved, missing, categoryRepository.findByNamesIgnoreCase(missing), this::remember);
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        // 3. New names, inserted in one statement and cached once the transaction commits
+        List<Category> inserted = categoryRepository.insertIgnoringExisting(missing.toArray(String[]::new));
+        addAll(resolved, missing, inserted, this::rememberAfterCommit);
+
+        // 4. Names inserted concurrently by another transaction
+        if (!missing.isEmpty()) {
+            addAll(resolved, missing, categoryRepository.findByNamesIgnoreCase(missing), this::remember);
+        }
+        return resolved;
+    }
+
+    /**
+     * Finds category names starting with the given prefix, from memory only
+     *
+     * @param prefix Prefix to search for
+     * @param limit Maximum number of names to return
+     * @return Matching category names in alphabetical order
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalizedPrefix = prefix == null ? "" : normalize(prefix);
+        return prefixIndex.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false)
+                .keySet().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    private void addAll(Map<String, Integer> resolved, Set<String> missing,
+                        Collection<Category> categories, Consumer<Category> cacheAction) {
+        for (Category category : categories) {
+            String name = normalize(category.getName());
+            resolved.put(name, category.getId());
+            missing.remove(name);
+            cacheAction.accept(category);
+        }
+    }
+
+    private void rememberAfterCommit(Category category) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(category);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(category);
+            }
+        });
+    }
+
+    private void remember(Category category) {
+        String name = normalize(category.getName());
+        idsByName.put(name, category.getId());
+        prefixIndex.put(name, category.getId());
+    }
+}
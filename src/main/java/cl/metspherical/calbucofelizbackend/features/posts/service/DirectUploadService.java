@@ -0,0 +1,151 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage.SignedUpload;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.SignedUploadDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.model.DirectUpload;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.DirectUploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and tracks signed upload slots, so clients upload images straight to
+ * Cloudinary instead of through the backend. Each slot pins a server-chosen
+ * public ID under the user's folder and is recorded with an expiry; finalizing
+ * a post claims its slots, and slots never claimed are deleted together with
+ * whatever was uploaded to them. A slot can only be claimed until it expires,
+ * but its signature stays valid longer, so cleanup waits until the signature
+ * has lapsed too; otherwise a late upload would land after its slot was deleted
+ * and never be removed.
+ */
+@Slf4j
+@Service
+public class DirectUploadService {
+
+    private static final int CLEANUP_BATCH_SIZE = 100;
+    /** Allowance for clock skew between this server and the storage provider */
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private final DirectUploadRepository directUploadRepository;
+    private final MediaStorage mediaStorage;
+    private final long ttlSeconds;
+
+    public DirectUploadService(
+            DirectUploadRepository directUploadRepository,
+            MediaStorage mediaStorage,
+            @Value("${posts.direct-uploads.ttl-seconds:900}") long ttlSeconds) {
+        this.directUploadRepository = directUploadRepository;
+        this.mediaStorage = mediaStorage;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Issues signed upload slots for a user
+     *
+     * @param userId ID of the uploading user
+     * @param count Number of images to upload (1 to 10)
+     * @return Signed parameters for each slot
+     */
+    @Transactional
+    public List<SignedUploadDTO> issue(UUID userId, int count) {
+        int validatedCount = Math.min(Math.max(count, 1), ImageModerationService.MAX_IMAGES);
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlSeconds);
+
+        List<DirectUpload> slots = new ArrayList<>(validatedCount);
+        List<SignedUploadDTO> signedUploads = new ArrayList<>(validatedCount);
+        for (int i = 0; i < validatedCount; i++) {
+            String publicId = "posts/" + userId + "/" + UUID.randomUUID();
+            SignedUpload signed = mediaStorage.signUpload(publicId, ImageVariant.FULL.getMaxSize());
+
+            slots.add(DirectUpload.builder()
+                    .publicId(publicId)
+                    .userId(userId)
+                    .expiresAt(expiresAt)
+                    .build());
+            signedUploads.add(new SignedUploadDTO(
+                    signed.uploadUrl(),
+                    signed.apiKey(),
+                    signed.timestamp(),
+                    signed.signature(),
+                    signed.publicId(),
+                    signed.allowedFormats(),
+                    signed.transformation(),
+                    expiresAt));
+        }
+
+        directUploadRepository.saveAll(slots);
+        return signedUploads;
+    }
+
+    /**
+     * Claims the slots of a post being finalized. Must run inside the transaction
+     * that creates the post, so a failed post leaves the slots claimable.
+     *
+     * @param userId ID of the user finalizing the post
+     * @param publicIds Public IDs the images were uploaded to
+     * @throws ResponseStatusException if any slot is unknown, expired, already used or issued to another user
+     */
+    public void claim(UUID userId, List<String> publicIds) {
+        if (publicIds == null || publicIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one image is required");
+        }
+        if (publicIds.size() > ImageModerationService.MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximum 10 images allowed");
+        }
+        if (new HashSet<>(publicIds).size() != publicIds.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate image");
+        }
+
+        int claimed = directUploadRepository.claim(userId, publicIds, LocalDateTime.now());
+        if (claimed != publicIds.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown or expired upload");
+        }
+    }
+
+    /**
+     * Deletes expired slots whose signature can no longer be used, and any image
+     * uploaded to them. A slot whose image cannot be deleted is kept and retried
+     * on the next run.
+     */
+    @Scheduled(fixedDelayString = "${posts.direct-uploads.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        List<DirectUpload> expired = directUploadRepository.findByExpiresAtBeforeOrderByExpiresAt(
+                cleanupCutoff(LocalDateTime.now()), Limit.of(CLEANUP_BATCH_SIZE));
+
+        for (DirectUpload slot : expired) {
+            try {
+                mediaStorage.deleteImage(slot.getPublicId());
+                directUploadRepository.delete(slot);
+            } catch (IOException e) {
+                log.warn("Could not delete expired direct upload {}", slot.getPublicId(), e);
+            }
+        }
+    }
+
+    /**
+     * Slots expiring before the returned time were signed more than the signature
+     * lifetime (plus clock skew) ago, so no upload can reach them anymore
+     *
+     * @param now Current time
+     * @return Expiry before which slots can be deleted
+     */
+    LocalDateTime cleanupCutoff(LocalDateTime now) {
+        long signatureOutlivesSlot = Math.max(0, MediaStorage.SIGNED_UPLOAD_LIFETIME_SECONDS - ttlSeconds);
+        return now.minusSeconds(signatureOutlivesSlot + CLOCK_SKEW_SECONDS);
+    }
+}
@@ -0,0 +1,238 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.ImageCompressionService;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
+import cl.metspherical.calbucofelizbackend.common.service.LeasedQueueWorker;
+import cl.metspherical.calbucofelizbackend.common.service.MediaSpool;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.common.service.UploadBuffer;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.PostStatusDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.MediaJobStatus;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
+import cl.metspherical.calbucofelizbackend.features.posts.model.MediaJob;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.MediaJobRepository;
+import cl.metspherical.calbucofelizbackend.features.posts.websocket.PostStatusWebSocketHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the media_job table for posts created in async mode.
+ * Claiming, leasing and retries come from LeasedQueueWorker. Each job
+ * moderates, compresses and uploads the spooled images off the request path;
+ * for posts whose images were uploaded straight to Cloudinary, it moderates the
+ * stored assets and computes their placeholders. Client errors (inappropriate
+ * or unreadable images) reject the post at once. The author is notified of the
+ * outcome either way.
+ */
+@Slf4j
+@Component
+public class MediaJobWorker extends LeasedQueueWorker<MediaJob> {
+
+    private static final String PROCESSING_FAILED = "Images could not be processed";
+
+    private final MediaJobRepository mediaJobRepository;
+    private final MediaSpool mediaSpool;
+    private final ImageModerationService imageModerationService;
+    private final ImageCompressionService imageCompressionService;
+    private final MediaStorage mediaStorage;
+    private final PostService postService;
+    private final PostStatusWebSocketHandler postStatusWebSocketHandler;
+
+    public MediaJobWorker(
+            MediaJobRepository mediaJobRepository,
+            MediaSpool mediaSpool,
+            ImageModerationService imageModerationService,
+            ImageCompressionService imageCompressionService,
+            MediaStorage mediaStorage,
+            PostService postService,
+            PostStatusWebSocketHandler postStatusWebSocketHandler,
+            PlatformTransactionManager transactionManager,
+            @Value("${posts.media-jobs.workers:2}") int workers,
+            @Value("${posts.media-jobs.max-attempts:5}") int maxAttempts,
+            @Value("${posts.media-jobs.backoff-base-ms:5000}") long backoffBaseMs,
+            @Value("${posts.media-jobs.backoff-max-ms:300000}") long backoffMaxMs,
+            @Value("${posts.media-jobs.lease-ms:600000}") long leaseMs) {
+        super("media-job", transactionManager, workers, maxAttempts, backoffBaseMs, backoffMaxMs, leaseMs);
+        this.mediaJobRepository = mediaJobRepository;
+        this.mediaSpool = mediaSpool;
+        this.imageModerationService = imageModerationService;
+        this.imageCompressionService = imageCompressionService;
+        this.mediaStorage = mediaStorage;
+        this.postService = postService;
+        this.postStatusWebSocketHandler = postStatusWebSocketHandler;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${posts.media-jobs.poll-interval-ms:1000}")
+    public void poll() {
+        super.poll();
+    }
+
+    @Override
+    protected List<MediaJob> lockDue(int limit) {
+        return mediaJobRepository.lockDueJobs(limit);
+    }
+
+    @Override
+    protected void markRunning(MediaJob job) {
+        job.setStatus(MediaJobStatus.RUNNING);
+    }
+
+    /**
+     * Processes the images of a job and publishes its post
+     */
+    @Override
+    protected void execute(MediaJob job) throws IOException {
+        boolean published = job.getPublicIds() != null ? processStored(job) : processSpooled(job);
+
+        // The job is done whether the post was published or deleted meanwhile
+        mediaJobRepository.deleteById(job.getId());
+        mediaSpool.delete(job.getId());
+
+        if (published) {
+            postStatusWebSocketHandler.notifyAuthor(job.getAuthorId(),
+                    new PostStatusDTO(job.getPostId(), PostStatus.PUBLISHED, null));
+        }
+    }
+
+    /**
+     * Images that vanished from the spool or the storage cannot come back, so the job is rejected
+     */
+    @Override
+    protected String rejectionReason(Exception failure) {
+        if (failure instanceof NoSuchFileException) {
+            return "Images are no longer available";
+        }
+        return super.rejectionReason(failure);
+    }
+
+    /**
+     * The author only learns that processing failed, not the internal error
+     */
+    @Override
+    protected String exhaustedReason(Exception failure) {
+        return PROCESSING_FAILED;
+    }
+
+    /**
+     * Moderates, compresses, uploads and publishes the spooled images of a multipart post
+     */
+    private boolean processSpooled(MediaJob job) throws IOException {
+        // 1. Load the raw images spooled when the post was created
+        List<UploadBuffer> images = mediaSpool.read(job.getId());
+
+        // 2. Moderate and compress exactly as the synchronous path does
+        imageModerationService.validateImages(images);
+        List<ProcessedImage> processedImages = imageCompressionService.compressImages(images);
+
+        // 3. Upload, attach and publish
+        return postService.publishPendingPost(job.getPostId(), processedImages);
+    }
+
+    /**
+     * Moderates the images a client uploaded straight to Cloudinary and publishes the post
+     */
+    private boolean processStored(MediaJob job) throws IOException {
+        List<String> publicIds = storedPublicIds(job);
+
+        // 1. Download a delivery-size copy of each stored image
+        List<UploadBuffer> images = new ArrayList<>(publicIds.size());
+        for (String publicId : publicIds) {
+            byte[] bytes = mediaStorage.fetchImage(publicId, ImageVariant.FULL.getMaxSize());
+            images.add(UploadBuffer.of(bytes, publicId, null));
+        }
+
+        // 2. Moderate the stored images
+        imageModerationService.validateImages(images);
+
+        // 3. Placeholders are computed here; renditions are Cloudinary transformations
+        List<String> placeholders = new ArrayList<>(images.size());
+        for (UploadBuffer image : images) {
+            placeholders.add(placeholderOf(image));
+        }
+        return postService.publishStoredPost(job.getPostId(), publicIds, placeholders);
+    }
+
+    /**
+     * Computes the placeholder of a stored image. The image was already fetched,
+     * so failing to decode it means the asset itself is bad and retrying cannot help.
+     */
+    private String placeholderOf(UploadBuffer image) throws IOException {
+        try {
+            return imageCompressionService.computePlaceholder(image);
+        } catch (IOException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Image could not be read");
+        }
+    }
+
+    @Override
+    protected void requeue(MediaJob job) {
+        job.setStatus(MediaJobStatus.QUEUED);
+        saveQuietly(job);
+    }
+
+    @Override
+    protected void reject(MediaJob job, String reason) {
+        boolean rejected = postService.rejectPendingPost(job.getPostId());
+
+        job.setStatus(MediaJobStatus.FAILED);
+        job.setLockedUntil(null);
+        job.setLastError(truncate(reason));
+        saveQuietly(job);
+        mediaSpool.delete(job.getId());
+        deleteStoredImages(job);
+
+        if (rejected) {
+            postStatusWebSocketHandler.notifyAuthor(job.getAuthorId(),
+                    new PostStatusDTO(job.getPostId(), PostStatus.REJECTED, reason));
+        }
+    }
+
+    /**
+     * Rejected direct uploads must not stay hosted, so their assets are deleted
+     */
+    private void deleteStoredImages(MediaJob job) {
+        if (job.getPublicIds() == null) {
+            return;
+        }
+        for (String publicId : storedPublicIds(job)) {
+            try {
+                mediaStorage.deleteImage(publicId);
+            } catch (IOException e) {
+                log.warn("Could not delete rejected image {}", publicId, e);
+            }
+        }
+    }
+
+    private static List<String> storedPublicIds(MediaJob job) {
+        return List.of(job.getPublicIds().split(","));
+    }
+
+    /**
+     * Saves the job state; a job whose post was deleted meanwhile is gone and is not recreated
+     */
+    private void saveQuietly(MediaJob job) {
+        try {
+            if (mediaJobRepository.existsById(job.getId())) {
+                mediaJobRepository.save(job);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not update media job {}", job.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.features.posts.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Periodically recomputes the denormalized like/comment counters of posts
+ * from post_like and comment, fixing any drift left by failed or concurrent writes
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCounterRepairJob {
+
+    private final PostRepository postRepository;
+
+    /**
+     * Repairs drifted counters. Runs daily at low traffic time by default.
+     *
+     * @return Number of posts whose counters were corrected
+     */
+    @Scheduled(cron = "${posts.counters.repair-cron:0 30 4 * * *}", zone = "America/Santiago")
+    @Transactional
+    public int repairCounters() {
+        int repaired = postRepository.repairCounters();
+        if (repaired > 0) {
+            log.warn("Repaired like/comment counters of {} posts", repaired);
+        }
+        return repaired;
+    }
+}
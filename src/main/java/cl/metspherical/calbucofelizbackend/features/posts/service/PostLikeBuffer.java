@@ -0,0 +1,375 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.features.posts.repository.PostLikeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for post likes.
+ * Like/unlike toggles are accepted in memory, coalesced per (post, user) and
+ * flushed to post_like in batched statements on a short interval, so a burst of
+ * likes on one post costs one transaction instead of one per click.
+ * A pending entry only exists while it differs from the database state, so a
+ * like followed by an unlike before the next flush writes nothing.
+ * Stripe locks are never held across a database read: the stored state is
+ * read unlocked and re-validated under the lock. The flush commits holding the
+ * stripes of the posts it wrote and drops their in-flight toggles before
+ * releasing them, so no reader sees a toggle both committed and in flight.
+ */
+@Slf4j
+@Component
+public class PostLikeBuffer {
+
+    private static final int STRIPES = 64;
+
+    private static final String INSERT_LIKE_SQL =
+            "INSERT INTO post_like (post_id, user_id) " +
+            "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM post WHERE id = ?) " +
+            "AND EXISTS (SELECT 1 FROM users WHERE id = ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String DELETE_LIKE_SQL =
+            "DELETE FROM post_like WHERE post_id = ? AND user_id = ?";
+    private static final String ADJUST_COUNT_SQL =
+            "UPDATE post SET like_count = like_count + ? WHERE id = ?";
+
+    private final PostLikeRepository postLikeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // Flushes committed per stripe, guarded by the stripe lock; a stored state read
+    // before a commit of its stripe may be stale
+    private final long[] stripeCommits = new long[STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // postId -> (userId -> desired liked state), not yet written
+    private final Map<UUID, Map<UUID, Boolean>> pending = new ConcurrentHashMap<>();
+    // postId -> (userId -> liked state) being written by the current flush
+    private final Map<UUID, Map<UUID, Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public PostLikeBuffer(
+            PostLikeRepository postLikeRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.postLikeRepository = postLikeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Registers a like
+     *
+     * @param postId ID of the post to like
+     * @param userId ID of the user liking the post
+     * @throws ResponseStatusException if the user already liked the post
+     */
+    public void like(UUID postId, UUID userId) {
+        toggle(postId, userId, true);
+    }
+
+    /**
+     * Registers an unlike
+     *
+     * @param postId ID of the post to unlike
+     * @param userId ID of the user unliking the post
+     * @throws ResponseStatusException if the user has not liked the post
+     */
+    public void unlike(UUID postId, UUID userId) {
+        toggle(postId, userId, false);
+    }
+
+    /**
+     * Returns whether the user likes the post, including toggles not yet flushed
+     *
+     * @param postId ID of the post
+     * @param userId ID of the user
+     * @return true if the user likes the post
+     */
+    public boolean isLiked(UUID postId, UUID userId) {
+        ReentrantLock lock = stripeFor(postId);
+        Boolean stored = null;
+        long seenCommits = 0;
+        while (true) {
+            lock.lock();
+            try {
+                Boolean state = currentState(postId, userId, stored, seenCommits);
+                if (state != null) {
+                    return state;
+                }
+                seenCommits = stripeCommits[stripeIndex(postId)];
+            } finally {
+                lock.unlock();
+            }
+            stored = postLikeRepository.existsByPost_IdAndUser_Id(postId, userId);
+        }
+    }
+
+    /**
+     * Net change in likes of a post that is not yet reflected in like_count
+     *
+     * @param postId ID of the post
+     * @return Pending like delta (may be negative)
+     */
+    public int pendingDelta(UUID postId) {
+        if (!pending.containsKey(postId) && !inFlight.containsKey(postId)) {
+            return 0;
+        }
+        ReentrantLock lock = stripeFor(postId);
+        lock.lock();
+        try {
+            return delta(pending.get(postId)) + delta(inFlight.get(postId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending toggles to the database in one transaction.
+     * On failure the toggles are put back so the next flush retries them.
+     */
+    @Scheduled(fixedDelayString = "${posts.likes.flush-interval-ms:250}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drainPendingIntoInFlight();
+            if (inFlight.isEmpty()) {
+                return;
+            }
+
+            try {
+                writeAndCommit();
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} buffered post likes, will retry", inFlight.size(), e);
+                restoreInFlight();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the remaining toggles on graceful shutdown
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("Shutting down with {} post likes that could not be flushed", pending.size());
+        }
+    }
+
+    private void toggle(UUID postId, UUID userId, boolean liked) {
+        ReentrantLock lock = stripeFor(postId);
+        Boolean stored = null;
+        long seenCommits = 0;
+        while (true) {
+            lock.lock();
+            try {
+                Boolean state = currentState(postId, userId, stored, seenCommits);
+                if (state != null) {
+                    apply(postId, userId, liked, state);
+                    return;
+                }
+                seenCommits = stripeCommits[stripeIndex(postId)];
+            } finally {
+                lock.unlock();
+            }
+            // Read the stored state without holding the stripe, then re-check under it
+            stored = postLikeRepository.existsByPost_IdAndUser_Id(postId, userId);
+        }
+    }
+
+    /**
+     * Records a toggle against the resolved current state.
+     * Must be called holding the post's stripe lock.
+     */
+    private void apply(UUID postId, UUID userId, boolean liked, boolean current) {
+        if (current == liked) {
+            throw liked
+                    ? new ResponseStatusException(HttpStatus.CONFLICT, "User has already liked this post")
+                    : new ResponseStatusException(HttpStatus.BAD_REQUEST, "User has not liked this post");
+        }
+
+        Map<UUID, Boolean> postToggles = pending.computeIfAbsent(postId, id -> new HashMap<>());
+        // A pending toggle always differs from the stored state, so flipping it back cancels it
+        if (postToggles.remove(userId) == null) {
+            postToggles.put(userId, liked);
+        }
+        if (postToggles.isEmpty()) {
+            pending.remove(postId);
+        }
+    }
+
+    /**
+     * Resolves the liked state: pending toggle, then toggle being flushed, then a
+     * stored state read since the stripe last committed.
+     * Must be called holding the post's stripe lock.
+     *
+     * @param stored Stored state read without the lock, or null if not read yet
+     * @param seenCommits Commit count of the stripe when the stored state was read
+     * @return The current state, or null if the stored state must be (re)read
+     */
+    private Boolean currentState(UUID postId, UUID userId, Boolean stored, long seenCommits) {
+        Boolean state = lookup(pending, postId, userId);
+        if (state == null) {
+            state = lookup(inFlight, postId, userId);
+        }
+        if (state == null && stored != null && stripeCommits[stripeIndex(postId)] == seenCommits) {
+            state = stored;
+        }
+        return state;
+    }
+
+    private void drainPendingIntoInFlight() {
+        for (UUID postId : new ArrayList<>(pending.keySet())) {
+            ReentrantLock lock = stripeFor(postId);
+            lock.lock();
+            try {
+                Map<UUID, Boolean> postToggles = pending.remove(postId);
+                if (postToggles != null) {
+                    inFlight.put(postId, postToggles);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the in-flight toggles in one transaction and commits it holding the
+     * stripes of every written post, dropping their in-flight toggles before the
+     * stripes are released
+     */
+    private void writeAndCommit() {
+        TransactionStatus status = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        try {
+            writeInFlight();
+        } catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+
+        // Ascending stripe order; other callers hold at most one stripe, so this cannot deadlock
+        int[] stripeIndexes = inFlight.keySet().stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        for (int index : stripeIndexes) {
+            stripes[index].lock();
+        }
+        try {
+            transactionManager.commit(status);
+            inFlight.clear();
+            for (int index : stripeIndexes) {
+                stripeCommits[index]++;
+            }
+        } finally {
+            for (int index : stripeIndexes) {
+                stripes[index].unlock();
+            }
+        }
+    }
+
+    private void writeInFlight() {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<UUID> insertPosts = new ArrayList<>();
+        List<UUID> deletePosts = new ArrayList<>();
+
+        inFlight.forEach((postId, toggles) -> toggles.forEach((userId, liked) -> {
+            if (Boolean.TRUE.equals(liked)) {
+                inserts.add(new Object[]{postId, userId, postId, userId});
+                insertPosts.add(postId);
+            } else {
+                deletes.add(new Object[]{postId, userId});
+                deletePosts.add(postId);
+            }
+        }));
+
+        // Counters are adjusted by the rows actually written, so they stay exact
+        Map<UUID, Integer> deltas = new HashMap<>();
+        accumulate(deltas, insertPosts, batch(INSERT_LIKE_SQL, inserts), 1);
+        accumulate(deltas, deletePosts, batch(DELETE_LIKE_SQL, deletes), -1);
+
+        List<Object[]> counterUpdates = new ArrayList<>();
+        deltas.forEach((postId, delta) -> {
+            if (delta != 0) {
+                counterUpdates.add(new Object[]{delta, postId});
+            }
+        });
+        batch(ADJUST_COUNT_SQL, counterUpdates);
+    }
+
+    private int[] batch(String sql, List<Object[]> args) {
+        return args.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    private void accumulate(Map<UUID, Integer> deltas, List<UUID> postIds, int[] affectedRows, int sign) {
+        for (int i = 0; i < affectedRows.length; i++) {
+            if (affectedRows[i] > 0) {
+                deltas.merge(postIds.get(i), sign, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Puts failed toggles back into the pending buffer unless a newer toggle replaced them
+     */
+    private void restoreInFlight() {
+        for (UUID postId : new ArrayList<>(inFlight.keySet())) {
+            ReentrantLock lock = stripeFor(postId);
+            lock.lock();
+            try {
+                Map<UUID, Boolean> toggles = inFlight.remove(postId);
+                Map<UUID, Boolean> postToggles = pending.computeIfAbsent(postId, id -> new HashMap<>());
+                toggles.forEach((userId, liked) -> {
+                    // A newer toggle on top of a failed one flips back to the stored state
+                    if (postToggles.remove(userId) == null) {
+                        postToggles.put(userId, liked);
+                    }
+                });
+                if (postToggles.isEmpty()) {
+                    pending.remove(postId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static Boolean lookup(Map<UUID, Map<UUID, Boolean>> buffer, UUID postId, UUID userId) {
+        Map<UUID, Boolean> postToggles = buffer.get(postId);
+        return postToggles != null ? postToggles.get(userId) : null;
+    }
+
+    private static int delta(Map<UUID, Boolean> toggles) {
+        if (toggles == null) {
+            return 0;
+        }
+        int delta = 0;
+        for (Boolean liked : toggles.values()) {
+            delta += Boolean.TRUE.equals(liked) ? 1 : -1;
+        }
+        return delta;
+    }
+
+    private ReentrantLock stripeFor(UUID postId) {
+        return stripes[stripeIndex(postId)];
+    }
+
+    private int stripeIndex(UUID postId) {
+        return Math.floorMod(postId.hashCode(), STRIPES);
+    }
+}
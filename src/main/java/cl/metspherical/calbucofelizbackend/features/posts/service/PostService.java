@@ -4,48 +4,324 @@ import cl.metspherical.calbucofelizbackend.features.posts.dto.CreatePostRequestD
 import cl.metspherical.calbucofelizbackend.features.posts.dto.*;
 import cl.metspherical.calbucofelizbackend.features.posts.model.Category;
 import cl.metspherical.calbucofelizbackend.features.posts.model.Comment;
+import cl.metspherical.calbucofelizbackend.features.posts.model.MediaJob;
 import cl.metspherical.calbucofelizbackend.features.posts.model.Post;
 import cl.metspherical.calbucofelizbackend.features.posts.model.PostImage;
-import cl.metspherical.calbucofelizbackend.features.posts.model.PostLike;
 import cl.metspherical.calbucofelizbackend.common.domain.User;
-import cl.metspherical.calbucofelizbackend.features.posts.repository.CategoryRepository;
 import cl.metspherical.calbucofelizbackend.features.posts.repository.CommentRepository;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.MediaJobRepository;
 import cl.metspherical.calbucofelizbackend.features.posts.repository.PostRepository;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
-import cl.metspherical.calbucofelizbackend.features.posts.repository.PostLikeRepository;
-import cl.metspherical.calbucofelizbackend.common.service.CloudinaryUploadService;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage.UploadedImage;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
+import cl.metspherical.calbucofelizbackend.common.service.MediaFingerprintCache;
+import cl.metspherical.calbucofelizbackend.common.service.MediaSpool;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.common.service.UploadBuffer;
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
+import cl.metspherical.calbucofelizbackend.features.posts.utils.FeedCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
     private final CommentRepository commentRepository;
-    private final PostLikeRepository postLikeRepository;
-    private final CloudinaryUploadService cloudinaryUploadService;
+    private final PostLikeBuffer postLikeBuffer;
+    private final CategoryDictionary categoryDictionary;
+    private final MediaStorage mediaStorage;
+    private final MediaFingerprintCache mediaFingerprintCache;
+    private final MediaJobRepository mediaJobRepository;
+    private final MediaSpool mediaSpool;
+    private final DirectUploadService directUploadService;
+    private final TransactionTemplate transactionTemplate;
 
 
     /**
      * Creates a new post in the system
+     * Images are uploaded in parallel before the transaction opens, so the database
+     * connection is only held for the short insert. Images already uploaded before
+     * (same content hash) reuse their URL. If anything fails, the images uploaded
+     * for this post are deleted again.
      *
      * @param request DTO containing post creation data
      * @return UUID of the created post
      */
-    @Transactional
     public UUID createPost(CreatePostRequestDTO request) {
+        validateCategoryNames(request.categoryNames());
+
+        // 1. Upload every rendition of every image in parallel, outside any transaction
+        List<ProcessedImage> processedImages = request.processedImages() != null ? request.processedImages() : List.of();
+        List<byte[]> renditions = renditions(processedImages);
+        List<String> hashes = renditions.stream().map(MediaFingerprintCache::sha256).toList();
+        List<UploadedImage> uploadedImages = uploadImages(renditions, hashes);
+
+        // 2. Persist the post in one short transaction
+        UUID postId;
+        try {
+            postId = transactionTemplate.execute(status -> savePost(request, processedImages, uploadedImages));
+        } catch (RuntimeException e) {
+            deleteUploadedImages(uploadedImages);
+            throw e;
+        }
+
+        // 3. Remember the new uploads now that a committed post references them
+        rememberUploads(hashes, uploadedImages);
+        return postId;
+    }
+
+    /**
+     * Checks the category names of a new post. Runs before any image work, so a
+     * post with invalid categories is refused before moderating or uploading.
+     *
+     * @param categoryNames Raw category names, may be null
+     * @throws ResponseStatusException if a name exceeds the maximum length
+     */
+    public void validateCategoryNames(Set<String> categoryNames) {
+        if (categoryNames != null) {
+            CategoryDictionary.normalizeAll(categoryNames);
+        }
+    }
+
+    /**
+     * Creates a post in async mode: the post is saved as PENDING together with a
+     * media job, and the raw images are spooled to local disk. Moderation,
+     * compression and upload run later in MediaJobWorker, which publishes or
+     * rejects the post. Posts without images have nothing to process and are
+     * published right away.
+     *
+     * @param request DTO containing post creation data (processedImages is ignored)
+     * @param images Raw uploaded images
+     * @return UUID of the created post
+     */
+    public UUID createPendingPost(CreatePostRequestDTO request, List<UploadBuffer> images) {
+        validateCategoryNames(request.categoryNames());
+        if (images.isEmpty()) {
+            return createPost(request);
+        }
+        if (images.size() > ImageModerationService.MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximum 10 images allowed");
+        }
+
+        // 1. Spool the raw images under a new job ID, outside any transaction
+        UUID jobId = UUID.randomUUID();
+        try {
+            mediaSpool.write(jobId, images);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Error storing images: " + e.getMessage());
+        }
+
+        // 2. Save the pending post and its job in one transaction
+        try {
+            return transactionTemplate.execute(status -> {
+                Post post = buildPost(request);
+                post.setStatus(PostStatus.PENDING);
+                UUID postId = postRepository.save(post).getId();
+
+                mediaJobRepository.save(MediaJob.builder()
+                        .id(jobId)
+                        .postId(postId)
+                        .authorId(request.authorId())
+                        .nextAttemptAt(LocalDateTime.now())
+                        .build());
+                return postId;
+            });
+        } catch (RuntimeException e) {
+            mediaSpool.delete(jobId);
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads the processed images of a PENDING post, attaches them and publishes it.
+     * The post row is locked while it is updated, so a job that is picked up twice
+     * publishes once; the duplicate deletes its own uploads.
+     *
+     * @param postId ID of the pending post
+     * @param processedImages Renditions of each image, in the order they were uploaded by the author
+     * @return true if the post was published, false if it is no longer pending (deleted or already processed)
+     * @throws ResponseStatusException if an upload fails (successful uploads are deleted)
+     */
+    public boolean publishPendingPost(UUID postId, List<ProcessedImage> processedImages) {
+        // 1. Upload outside any transaction
+        List<byte[]> renditions = renditions(processedImages);
+        List<String> hashes = renditions.stream().map(MediaFingerprintCache::sha256).toList();
+        List<UploadedImage> uploadedImages = uploadImages(renditions, hashes);
+
+        // 2. Attach the images and flip the status in one short transaction
+        boolean published;
+        try {
+            published = publish(postId, post -> attachImages(post, processedImages, uploadedImages));
+        } catch (RuntimeException e) {
+            deleteUploadedImages(uploadedImages);
+            throw e;
+        }
+
+        if (!published) {
+            deleteUploadedImages(uploadedImages);
+            return false;
+        }
+
+        // 3. Remember the new uploads now that a committed post references them
+        rememberUploads(hashes, uploadedImages);
+        return true;
+    }
+
+    /**
+     * Creates a post from images the client already uploaded to Cloudinary with
+     * signed upload slots. The slots are claimed and the post is saved as PENDING
+     * with a media job that moderates the stored assets.
+     *
+     * @param request DTO containing post creation data (processedImages is ignored)
+     * @param publicIds Public IDs of the uploaded images, in display order
+     * @return UUID of the created post
+     * @throws ResponseStatusException if a slot is unknown, expired or issued to another user
+     */
+    public UUID createPendingStoredPost(CreatePostRequestDTO request, List<String> publicIds) {
+        validateCategoryNames(request.categoryNames());
+        return transactionTemplate.execute(status -> {
+            // 1. Claim the upload slots; this fails if any was not issued to the author
+            directUploadService.claim(request.authorId(), publicIds);
+
+            // 2. Save the pending post and its job
+            Post post = buildPost(request);
+            post.setStatus(PostStatus.PENDING);
+            UUID postId = postRepository.save(post).getId();
+
+            mediaJobRepository.save(MediaJob.builder()
+                    .id(UUID.randomUUID())
+                    .postId(postId)
+                    .authorId(request.authorId())
+                    .publicIds(String.join(",", publicIds))
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+            return postId;
+        });
+    }
+
+    /**
+     * Publishes a PENDING post whose images are already stored in Cloudinary.
+     * Smaller renditions are Cloudinary delivery transformations, so nothing is uploaded.
+     *
+     * @param postId ID of the pending post
+     * @param publicIds Public IDs of the stored images, in display order
+     * @param placeholders BlurHash placeholder of each image, in the same order
+     * @return true if the post was published, false if it is no longer pending
+     */
+    public boolean publishStoredPost(UUID postId, List<String> publicIds, List<String> placeholders) {
+        return publish(postId, post -> {
+            for (int i = 0; i < publicIds.size(); i++) {
+                String publicId = publicIds.get(i);
+                post.addImage(PostImage.builder()
+                        .url(mediaStorage.deliveryUrl(publicId, ImageVariant.FULL.getMaxSize()))
+                        .mediumUrl(mediaStorage.deliveryUrl(publicId, ImageVariant.MEDIUM.getMaxSize()))
+                        .thumbnailUrl(mediaStorage.deliveryUrl(publicId, ImageVariant.THUMBNAIL.getMaxSize()))
+                        .placeholder(placeholders.get(i))
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Locks a post, and if it is still PENDING attaches its images and publishes it
+     *
+     * @param postId ID of the pending post
+     * @param attach Attaches the images to the locked post
+     * @return true if the post was published
+     */
+    private boolean publish(UUID postId, Consumer<Post> attach) {
+        Boolean published = transactionTemplate.execute(status -> postRepository.findByIdForUpdate(postId)
+                .filter(post -> post.getStatus() == PostStatus.PENDING)
+                .map(post -> {
+                    attach.accept(post);
+                    post.setStatus(PostStatus.PUBLISHED);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(published);
+    }
+
+    /**
+     * Marks a PENDING post as REJECTED
+     *
+     * @param postId ID of the pending post
+     * @return true if the post was rejected, false if it is no longer pending
+     */
+    @Transactional
+    public boolean rejectPendingPost(UUID postId) {
+        return postRepository.updateStatus(postId, PostStatus.PENDING, PostStatus.REJECTED) > 0;
+    }
+
+    /**
+     * Gets the publication status of a post for its author
+     *
+     * @param postId ID of the post
+     * @param userId ID of the requesting user
+     * @return PostStatusDTO with the status and, for rejected posts, the reason
+     * @throws ResponseStatusException if the post does not exist or the user is not its author
+     */
+    public PostStatusDTO getPostStatus(UUID postId, UUID userId) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+
+        if (!post.getAuthor().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not the author of this post");
+        }
+
+        String reason = post.getStatus() == PostStatus.REJECTED
+                ? mediaJobRepository.findByPostId(postId).map(MediaJob::getLastError).orElse(null)
+                : null;
+        return new PostStatusDTO(postId, post.getStatus(), reason);
+    }
+
+    /**
+     * Builds and saves the post with its categories and already uploaded images
+     *
+     * @param request DTO containing post creation data
+     * @param processedImages Renditions of each image, in upload order
+     * @param uploadedImages Renditions already in media storage, flattened in the same order
+     * @return UUID of the created post
+     */
+    private UUID savePost(CreatePostRequestDTO request, List<ProcessedImage> processedImages,
+                          List<UploadedImage> uploadedImages) {
+        Post post = buildPost(request);
+        attachImages(post, processedImages, uploadedImages);
+        Post savedPost = postRepository.save(post);
+        return savedPost.getId();
+    }
+
+    /**
+     * Builds a post with its author and categories, without images
+     *
+     * @param request DTO containing post creation data
+     * @return New, unsaved post
+     */
+    private Post buildPost(CreatePostRequestDTO request) {
         // 1. Validate and get user
         User author = userRepository.getReferenceById(request.authorId());
 
@@ -60,70 +336,151 @@ public class PostService {
             Set<Category> categories = processCategories(request.categoryNames());
             categories.forEach(post::addCategory);
         }
-        // 4. Process images using CloudinaryUploadService
-        if (request.processedImages() != null && !request.processedImages().isEmpty()) {
-            processImages(request.processedImages(), post);
+        return post;
+    }
+
+    /**
+     * Attaches already uploaded images to a post, regrouping the renditions of each one
+     *
+     * @param post Post to attach the images to
+     * @param processedImages Renditions of each image, in upload order
+     * @param uploadedImages Renditions already in media storage, flattened in the same order
+     */
+    private void attachImages(Post post, List<ProcessedImage> processedImages, List<UploadedImage> uploadedImages) {
+        Iterator<UploadedImage> uploaded = uploadedImages.iterator();
+        for (ProcessedImage processedImage : processedImages) {
+            Map<ImageVariant, String> urls = new EnumMap<>(ImageVariant.class);
+            for (ImageVariant variant : processedImage.renditions().keySet()) {
+                urls.put(variant, uploaded.next().url());
+            }
+            post.addImage(PostImage.builder()
+                    .url(urls.get(ImageVariant.FULL))
+                    .mediumUrl(urls.get(ImageVariant.MEDIUM))
+                    .thumbnailUrl(urls.get(ImageVariant.THUMBNAIL))
+                    .placeholder(processedImage.placeholder())
+                    .build());
         }
+    }
 
-        // 5. Save and return ID
-        Post savedPost = postRepository.save(post);
-        return savedPost.getId();
+    /**
+     * Flattens the renditions of every image, in EnumMap order within each image
+     */
+    private List<byte[]> renditions(List<ProcessedImage> processedImages) {
+        return processedImages.stream()
+                .flatMap(image -> image.renditions().values().stream())
+                .toList();
+    }
+
+    /**
+     * Remembers the URL of every fresh upload under its content hash
+     */
+    private void rememberUploads(List<String> hashes, List<UploadedImage> uploadedImages) {
+        for (int i = 0; i < uploadedImages.size(); i++) {
+            if (isFreshUpload(uploadedImages.get(i))) {
+                mediaFingerprintCache.rememberUrl(hashes.get(i), uploadedImages.get(i).url());
+            }
+        }
     }
 
     /**
      * Processes categories, creating new ones if they don't exist
+     * Names are resolved through the in-memory dictionary in one batch. The
+     * categories are built from the resolved IDs and names instead of loaded, so
+     * linking them to the post costs no query; only the join rows are written.
      *
      * @param categoryNames Set of category names to process
-     * @return Set of Category objects
+     * @return Set of detached categories
      */
     private Set<Category> processCategories(Set<String> categoryNames) {
         Set<Category> categories = new HashSet<>();
+        categoryDictionary.resolve(categoryNames).forEach((name, id) ->
+                categories.add(Category.builder().id(id).name(name).build()));
+        return categories;
+    }
 
-        for (String name : categoryNames) {
-            String normalizedName = name.trim().toLowerCase();
+    /**
+     * Suggests existing category names starting with the given prefix
+     *
+     * @param prefix Prefix typed by the user
+     * @param limit Maximum number of suggestions
+     * @return List of CategoryDTO in alphabetical order
+     */
+    public List<CategoryDTO> suggestCategories(String prefix, Integer limit) {
+        int validatedLimit = Math.min(Math.max(limit, 1), 20);
+        return categoryDictionary.suggest(prefix, validatedLimit).stream()
+                .map(CategoryDTO::new)
+                .toList();
+    }
 
-            // Look for existing category
-            Category category = categoryRepository.findByNameIgnoreCase(normalizedName)
-                    .orElseGet(() -> {
-                        // Create new category if it doesn't exist
-                        Category newCategory = Category.builder()
-                                .name(normalizedName)
-                                .build();
-                        return categoryRepository.save(newCategory);
-                    });
+    /**
+     * Uploads already compressed images to media storage in parallel on virtual threads,
+     * so the total time is that of the slowest upload instead of the sum.
+     * Images whose content hash is already known reuse the stored URL (without a public ID).
+     *
+     * @param processedImages List of processed image bytes (renditions) to upload
+     * @param hashes SHA-256 digests of the images, in the same order
+     * @return Uploaded images in the same order as the input
+     * @throws ResponseStatusException if any upload fails (successful uploads are deleted)
+     */
+    private List<UploadedImage> uploadImages(List<byte[]> processedImages, List<String> hashes) {
+        if (processedImages.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, String> knownUrls = mediaFingerprintCache.findUrls(hashes);
 
-            categories.add(category);
+        List<Future<UploadedImage>> uploads = new ArrayList<>(processedImages.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < processedImages.size(); i++) {
+                byte[] imageBytes = processedImages.get(i);
+                String knownUrl = knownUrls.get(hashes.get(i));
+                uploads.add(knownUrl != null
+                        ? CompletableFuture.completedFuture(new UploadedImage(null, knownUrl))
+                        : executor.submit(() -> mediaStorage.uploadImageAsset(imageBytes)));
+            }
+        } // close() waits for every upload to finish
+
+        List<UploadedImage> uploadedImages = new ArrayList<>(uploads.size());
+        Throwable failure = null;
+        for (Future<UploadedImage> upload : uploads) {
+            if (upload.state() == Future.State.SUCCESS) {
+                uploadedImages.add(upload.resultNow());
+            } else if (failure == null) {
+                failure = upload.exceptionNow();
+            }
         }
 
-        return categories;
+        if (failure != null) {
+            deleteUploadedImages(uploadedImages);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Error uploading image: " + failure.getMessage());
+        }
+        return uploadedImages;
     }
 
     /**
-     * Processes already compressed images and uploads them to Cloudinary
+     * Compensating step: deletes images uploaded for a post that was not created.
+     * Reused images are shared with other posts and are never deleted.
      *
-     * @param processedImages List of processed image bytes to upload
-     * @param post Post to associate images with
+     * @param uploadedImages Images to delete
      */
-    private void processImages(List<byte[]> processedImages, Post post) {
-        for (byte[] imageBytes : processedImages) {
+    private void deleteUploadedImages(List<UploadedImage> uploadedImages) {
+        for (UploadedImage uploadedImage : uploadedImages) {
+            if (!isFreshUpload(uploadedImage)) {
+                continue;
+            }
             try {
-                // Upload image to Cloudinary
-                String imageUrl = cloudinaryUploadService.uploadImage(imageBytes);
-
-                // Create PostImage entity with the URL
-                PostImage postImage = PostImage.builder()
-                        .url(imageUrl)
-                        .build();
-
-                post.addImage(postImage);
-
+                mediaStorage.deleteImage(uploadedImage.publicId());
             } catch (IOException e) {
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                    "Error uploading image: " + e.getMessage());
+                log.warn("Could not delete orphan image {}", uploadedImage.publicId(), e);
             }
         }
     }
 
+    private boolean isFreshUpload(UploadedImage uploadedImage) {
+        return uploadedImage.publicId() != null;
+    }
+
     /**
      * Sanitizes post content
      *
@@ -141,7 +498,9 @@ public class PostService {
      * @return PostDetailDTO containing post information
      */
     public PostDetailDTO getPostById(UUID id) {
+        // Pending and rejected posts are only visible to their author, through getPostStatus
         Post post = postRepository.findByIdWithDetails(id)
+                .filter(found -> found.getStatus() == PostStatus.PUBLISHED)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
         return mapPostToPostDetailDTO(post);
     }
@@ -156,6 +515,7 @@ public class PostService {
         AuthorDTO authorDTO = new AuthorDTO(
                 post.getAuthor().getUsername(),
                 post.getAuthor().getAvatar(),
+                post.getAuthor().getAvatarSmall() != null ? post.getAuthor().getAvatarSmall() : post.getAuthor().getAvatar(),
                 post.getAuthor().getRoles()
         );
 
@@ -163,24 +523,31 @@ public class PostService {
                 .map(PostImage::getUrl)  // Directamente devolver la URL
                 .toList();
 
+        // Missing renditions fall back to the next larger one
+        List<PostImageDTO> imageVariants = post.getImages().stream()
+                .map(image -> {
+                    String medium = image.getMediumUrl() != null ? image.getMediumUrl() : image.getUrl();
+                    String thumbnail = image.getThumbnailUrl() != null ? image.getThumbnailUrl() : medium;
+                    return new PostImageDTO(thumbnail, medium, image.getUrl(), image.getPlaceholder());
+                })
+                .toList();
+
         List<CategoryDTO> categoryDTOs = post.getCategories().stream()
                 .map(category -> new CategoryDTO(
                         category.getName()))
                 .toList();
 
-        // Use COUNT queries to avoid ConcurrentModificationException
-        long likesCount = postRepository.countLikesByPostId(post.getId());
-        long commentsCount = postRepository.countCommentsByPostId(post.getId());
-
+        // Counters are denormalized on the post row, no extra queries needed
         return new PostDetailDTO(
                 post.getId(),
                 post.getContent(),
                 post.getCreatedAt(),
                 authorDTO,
                 images,
+                imageVariants,
                 categoryDTOs,
-                (int) likesCount,
-                (int) commentsCount
+                post.getLikeCount() + postLikeBuffer.pendingDelta(post.getId()),
+                post.getCommentCount()
         );
     }
 
@@ -204,8 +571,9 @@ public class PostService {
                 .user(user)
                 .build();
 
-        // 3. Save and return ID
+        // 3. Save, update the post counter and return ID
         Comment savedComment = commentRepository.save(comment);
+        postRepository.adjustCommentCount(postId, 1);
         return savedComment.getId();
     }
 
@@ -262,8 +630,9 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Comment does not belong to the specified post");
         }
 
-        // 5. Delete the comment
+        // 5. Delete the comment and update the post counter
         commentRepository.delete(comment);
+        postRepository.adjustCommentCount(postId, -1);
     }
 
     /**
@@ -286,47 +655,36 @@ public class PostService {
         postRepository.delete(post);
     }
     /**
-     * Adds a like to a post
+     * Adds a like to a post. The like is buffered and written in the next batch flush.
      *
      * @param postId ID of the post to like
      * @param userId ID of the user liking the post
-     * @throws RuntimeException if post or user not found, or if user already liked the post
+     * @throws ResponseStatusException if user already liked the post
      */
-    @Transactional
     public void likePost(UUID postId, UUID userId) {
-        // 1. Check if user already liked the post
-        if (postLikeRepository.existsByPost_IdAndUser_Id(postId, userId)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "User has already liked this post");
-        }
-
-        // 2. Use lazy references
-        Post post = postRepository.getReferenceById(postId);
-        User user = userRepository.getReferenceById(userId);
-
-        // 3. Create and save the like
-        PostLike postLike = PostLike.builder()
-                .post(post)
-                .user(user)
-                .build();
-
-        postLikeRepository.save(postLike);
+        postLikeBuffer.like(postId, userId);
     }
+
     /**
-     * Removes a like from a post
+     * Removes a like from a post. The removal is buffered and written in the next batch flush.
      *
      * @param postId ID of the post to unlike
      * @param userId ID of the user unliking the post
-     * @throws RuntimeException if post or user not found, or if user hasn't liked the post
+     * @throws ResponseStatusException if user hasn't liked the post
      */
-    @Transactional
     public void unlikePost(UUID postId, UUID userId) {
-        // 1. Check if user has liked the post
-        if (!postLikeRepository.existsByPost_IdAndUser_Id(postId, userId)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User has not liked this post");
-        }
+        postLikeBuffer.unlike(postId, userId);
+    }
 
-        // 2. Delete the like directly
-        postLikeRepository.deleteByPost_IdAndUser_Id(postId, userId);
+    /**
+     * Checks whether a user likes a post, including likes not yet flushed
+     *
+     * @param postId ID of the post
+     * @param userId ID of the user
+     * @return true if the user likes the post
+     */
+    public boolean isPostLikedBy(UUID postId, UUID userId) {
+        return postLikeBuffer.isLiked(postId, userId);
     }
 
     /**
@@ -340,44 +698,120 @@ public class PostService {
      */
     public PostPaginatedResponseDTO getPostsPaginated(Integer page, Integer size, String category, String username) {
         // 1. Create Pageable with size validation and ordering
-        int validatedSize = Math.min(Math.max(size, 1), 50); // Min 1, Max 50 posts per page
+        int validatedSize = validatePageSize(size);
         int validatedPage = Math.max(page, 0); // Min page 0
-        
+
         Pageable pageable = PageRequest.of(validatedPage, validatedSize);
-        Page<Post> postsPage;
-
-        // 2. Apply filters based on provided parameters
-        boolean hasCategory = category != null && !category.trim().isEmpty();
-        boolean hasUsername = username != null && !username.trim().isEmpty();
-
-        if (hasCategory && hasUsername) {
-            // Both filters
-            postsPage = postRepository.findPostsByCategoryAndUsernameWithDetails(
-                    category.trim(), username.trim(), pageable);
-        } else if (hasCategory) {
-            // Only category filter
-            postsPage = postRepository.findPostsByCategoryWithDetails(category.trim(), pageable);
-        } else if (hasUsername) {
-            // Only username filter
-            postsPage = postRepository.findPostsByUsernameWithDetails(username.trim(), pageable);
-        } else {
-            // No filters - all posts
-            postsPage = postRepository.findAllPostsWithDetails(pageable);
-        }
 
-        // 3. Convert posts to DTOs
-        List<PostDetailDTO> postDTOs = postsPage.getContent().stream()
-                .map(this::mapPostToPostDetailDTO)
-                .toList();
+        // 2. Select only the IDs of the requested page (LIMIT/OFFSET applied in SQL)
+        Slice<UUID> idSlice = postRepository.findPostIds(
+                normalizeFilter(category), normalizeFilter(username), pageable);
+
+        // 3. Batch-load details and convert posts to DTOs
+        List<PostDetailDTO> postDTOs = loadPostDetails(idSlice.getContent());
 
         // 4. Build pagination response
         return new PostPaginatedResponseDTO(
                 postDTOs,
-                postsPage.hasNext(),
-                postsPage.getNumber(),
-                postsPage.isFirst(),
-                postsPage.isLast(),
-                postsPage.hasPrevious()
+                idSlice.hasNext(),
+                idSlice.getNumber(),
+                idSlice.isFirst(),
+                idSlice.isLast(),
+                idSlice.hasPrevious()
         );
     }
+
+    /**
+     * Gets posts using keyset pagination on (createdAt, id), with optional filtering
+     * by category and username. Unlike offset pagination, the cost of a page does not
+     * grow with how deep the client has scrolled.
+     *
+     * @param cursor Opaque cursor returned by the previous page, or null for the first page
+     * @param size Number of posts per page
+     * @param category Optional category filter (searches for similar category names)
+     * @param username Optional username filter (searches for similar usernames, names, or lastNames)
+     * @return PostFeedResponseDTO containing posts and the cursor of the next page
+     */
+    public PostFeedResponseDTO getPostsFeed(String cursor, Integer size, String category, String username) {
+        // 1. Validate size and filters
+        int validatedSize = validatePageSize(size);
+        String categoryFilter = normalizeFilter(category);
+        String usernameFilter = normalizeFilter(username);
+
+        // 2. Select one extra ID to know whether there is a next page
+        List<UUID> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = postRepository.findPostIds(
+                    categoryFilter, usernameFilter, PageRequest.of(0, validatedSize + 1)).getContent();
+        } else {
+            FeedCursor feedCursor = decodeCursor(cursor);
+            ids = postRepository.findPostIdsBefore(
+                    categoryFilter, usernameFilter,
+                    feedCursor.createdAt(), feedCursor.id(),
+                    Limit.of(validatedSize + 1));
+        }
+
+        boolean hasNext = ids.size() > validatedSize;
+        List<UUID> pageIds = hasNext ? ids.subList(0, validatedSize) : ids;
+
+        // 3. Batch-load details and convert posts to DTOs
+        List<PostDetailDTO> postDTOs = loadPostDetails(pageIds);
+
+        // 4. Next cursor points at the last post of this page
+        String nextCursor = null;
+        if (hasNext && !postDTOs.isEmpty()) {
+            PostDetailDTO last = postDTOs.get(postDTOs.size() - 1);
+            nextCursor = new FeedCursor(last.createdAt(), last.id()).encode();
+        }
+
+        return new PostFeedResponseDTO(postDTOs, hasNext, nextCursor);
+    }
+
+    /**
+     * Loads posts with their details in a single query and keeps the order of the given IDs
+     *
+     * @param ids Ordered IDs of the posts to load
+     * @return List of PostDetailDTO in the same order as the IDs
+     */
+    private List<PostDetailDTO> loadPostDetails(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Post> postsById = new HashMap<>();
+        for (Post post : postRepository.findAllWithDetailsByIdIn(ids)) {
+            postsById.put(post.getId(), post);
+        }
+
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapPostToPostDetailDTO)
+                .toList();
+    }
+
+    /**
+     * Decodes a feed cursor sent by the client
+     */
+    private FeedCursor decodeCursor(String cursor) {
+        try {
+            return FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Clamps the page size between 1 and 50 posts
+     */
+    private int validatePageSize(Integer size) {
+        return Math.min(Math.max(size, 1), 50);
+    }
+
+    /**
+     * Trims a search filter; missing filters become an empty string (no filtering)
+     */
+    private String normalizeFilter(String filter) {
+        return filter != null ? filter.trim() : "";
+    }
 }
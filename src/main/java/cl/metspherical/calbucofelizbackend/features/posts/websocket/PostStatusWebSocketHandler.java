@@ -0,0 +1,81 @@
+package cl.metspherical.calbucofelizbackend.features.posts.websocket;
+
+import cl.metspherical.calbucofelizbackend.features.mediations.dto.WebSocketResponseDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.PostStatusDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the outcome of async post publishing to the author's open connections.
+ * Clients only listen; authors that are offline see the result through
+ * GET /api/posts/{id}/status.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostStatusWebSocketHandler extends TextWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, Set<WebSocketSession>> userSessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        // Workers send from their own threads, so sends to a session are serialized
+        userSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
+                .add(new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT));
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        userSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.removeIf(open -> open.getId().equals(session.getId()));
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Notifies the author of a post that it was published or rejected
+     *
+     * @param authorId ID of the post author
+     * @param postStatus New status of the post
+     */
+    public void notifyAuthor(UUID authorId, PostStatusDTO postStatus) {
+        Set<WebSocketSession> sessions = userSessions.get(authorId);
+        if (sessions == null) {
+            return;
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new WebSocketResponseDTO("postStatus", "success", postStatus));
+        } catch (Exception e) {
+            return;
+        }
+
+        for (WebSocketSession session : sessions) {
+            try {
+                if (session.isOpen()) {
+                    session.sendMessage(new TextMessage(payload));
+                }
+            } catch (Exception ignored) {
+                /* Failed to send message through WebSocket - session may be closed */
+            }
+        }
+    }
+}
@@ -3,14 +3,20 @@ package cl.metspherical.calbucofelizbackend.features.users.controller;
 import cl.metspherical.calbucofelizbackend.features.users.dto.UserProfileDTO;
 import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserImportResultDTO;
 import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResponseDTO;
+import cl.metspherical.calbucofelizbackend.features.users.service.UserImportService;
 import cl.metspherical.calbucofelizbackend.features.users.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -18,6 +24,7 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @GetMapping("/{username}")
     public ResponseEntity<UserProfileDTO> getUserProfile(@PathVariable String username) {
@@ -40,5 +47,15 @@ public class UserController {
         UserSearchResponseDTO searchResult = userService.searchUsers(username);
         return ResponseEntity.ok(searchResult);
     }
-}
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('COMITE_SEGURIDAD')")
+    public ResponseEntity<UserImportResultDTO> importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        UserImportResultDTO result = userImportService.importUsers(request.getInputStream(), format);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,8 @@
+package cl.metspherical.calbucofelizbackend.features.users.dto;
+
+public record UserImportErrorDTO(
+        int line,
+        String rut,
+        String message
+) {
+}
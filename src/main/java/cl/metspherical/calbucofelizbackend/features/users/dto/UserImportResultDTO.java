@@ -0,0 +1,10 @@
+package cl.metspherical.calbucofelizbackend.features.users.dto;
+
+import java.util.List;
+
+public record UserImportResultDTO(
+        int rows,
+        int imported,
+        List<UserImportErrorDTO> errors
+) {
+}
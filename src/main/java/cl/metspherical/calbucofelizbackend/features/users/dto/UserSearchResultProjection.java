@@ -0,0 +1,15 @@
+package cl.metspherical.calbucofelizbackend.features.users.dto;
+
+/**
+ * Row returned by the ranked user search query
+ */
+public interface UserSearchResultProjection {
+
+    String getUsername();
+
+    String getAvatar();
+
+    Integer getTotalLikes();
+
+    Integer getPostCount();
+}
@@ -0,0 +1,356 @@
+package cl.metspherical.calbucofelizbackend.features.users.service;
+
+import cl.metspherical.calbucofelizbackend.features.auth.dto.RegisterRequestDTO;
+import cl.metspherical.calbucofelizbackend.features.auth.utils.PhoneValidator;
+import cl.metspherical.calbucofelizbackend.features.auth.utils.RutValidator;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserImportErrorDTO;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserImportResultDTO;
+import cl.metspherical.calbucofelizbackend.features.users.utils.CsvParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk pre-registration of residents from a CSV or NDJSON stream.
+ * Rows are read one at a time and validated like a registration; valid rows
+ * are collected into batches whose passwords are hashed in parallel and which
+ * are inserted with a single JDBC batch. Invalid rows, duplicates within the
+ * file and residents already registered are reported per line without
+ * stopping the import.
+ * Only one import runs at a time, on a small hashing pool shared by all
+ * imports, so the BCrypt work of an import stays bounded and leaves cores to
+ * the login executor.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, rut, number, username, names, last_names, password, address) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final List<String> REQUIRED_COLUMNS = List.of("rut", "names", "lastnames", "number", "address");
+    private static final int MAX_USERNAME_LENGTH = 30;
+    private static final int MAX_NAMES_LENGTH = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService hashingPool;
+    private final Semaphore importGate = new Semaphore(1);
+    private final SecureRandom random = new SecureRandom();
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            @Value("${users.import.batch-size:500}") int batchSize,
+            @Value("${users.import.hashing-threads:0}") int hashingThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        int poolSize = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the hashing pool on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports residents from a stream. CSV input needs a header row with the
+     * columns rut, names, lastnames, number, address and optionally password;
+     * NDJSON input has one object per line with the same fields. Residents
+     * without a password get a random one and use password recovery to log in.
+     *
+     * @param input Stream with the rows
+     * @param format Format of the stream
+     * @return Number of rows read and imported, and the error of each rejected row
+     * @throws ResponseStatusException if the CSV header is missing a required column (400)
+     *                                 or another import is running (429)
+     */
+    public UserImportResultDTO importUsers(InputStream input, Format format) throws IOException {
+        if (!importGate.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Another user import is running, please try again later");
+        }
+        try {
+            return runImport(input, format);
+        } finally {
+            importGate.release();
+        }
+    }
+
+    private UserImportResultDTO runImport(InputStream input, Format format) throws IOException {
+        ImportState state = new ImportState();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+            Map<String, Integer> columns = format == Format.CSV ? readHeader(reader, state) : null;
+            List<PendingUser> batch = new ArrayList<>(batchSize);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                state.line++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                state.rows++;
+
+                // 1. Parse and validate the row
+                RegisterRequestDTO row;
+                try {
+                    row = format == Format.CSV ? parseCsv(line, columns) : objectMapper.readValue(line, RegisterRequestDTO.class);
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    state.errors.add(new UserImportErrorDTO(state.line, null, "Malformed row"));
+                    continue;
+                }
+
+                String error = validate(row, state);
+                if (error != null) {
+                    state.errors.add(new UserImportErrorDTO(state.line, row.rut(), error));
+                    continue;
+                }
+
+                // 2. Hash and insert in batches
+                batch.add(new PendingUser(state.line, row));
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, state);
+                    batch.clear();
+                }
+            }
+            insertBatch(batch, state);
+        }
+
+        return new UserImportResultDTO(state.rows, state.imported, state.errors);
+    }
+
+    private Map<String, Integer> readHeader(BufferedReader reader, ImportState state) throws IOException {
+        String header;
+        do {
+            header = reader.readLine();
+            state.line++;
+        } while (header != null && header.isBlank());
+
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvParser.parseLine(header.replace("\uFEFF", ""));
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing the column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static RegisterRequestDTO parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvParser.parseLine(line);
+        return new RegisterRequestDTO(
+                field(fields, columns, "rut"),
+                field(fields, columns, "names"),
+                field(fields, columns, "lastnames"),
+                field(fields, columns, "number"),
+                field(fields, columns, "password"),
+                field(fields, columns, "address")
+        );
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Applies the registration checks plus uniqueness within the file
+     *
+     * @return Error message, or null if the row is valid
+     */
+    private static String validate(RegisterRequestDTO row, ImportState state) {
+        if (!RutValidator.validateRut(row.rut())) {
+            return "Invalid RUT format or verification digit";
+        }
+        if (!PhoneValidator.isValidChileanPhone(row.number())) {
+            return "Invalid Chilean phone number format";
+        }
+        if (row.names() == null || row.names().isBlank()) {
+            return "Names are required";
+        }
+        if (row.names().length() > MAX_NAMES_LENGTH) {
+            return "Names are too long";
+        }
+        if (row.address() == null || row.address().isBlank()) {
+            return "Address is required";
+        }
+        if (!state.ruts.add(row.rut())) {
+            return "Duplicate RUT in file";
+        }
+        if (!state.numbers.add(Integer.valueOf(row.number()))) {
+            return "Duplicate phone number in file";
+        }
+        return null;
+    }
+
+    private void insertBatch(List<PendingUser> batch, ImportState state) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // 1. Hash every password of the batch in parallel
+        List<Object[]> args = hashAll(batch);
+
+        // 2. One JDBC batch; rows that hit a unique constraint insert nothing
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, args));
+        } catch (DataAccessException e) {
+            log.warn("User import batch failed, retrying {} rows one by one", batch.size(), e);
+            counts = insertOneByOne(args);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingUser pending = batch.get(i);
+            int count = counts != null && i < counts.length ? counts[i] : Statement.EXECUTE_FAILED;
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                state.imported++;
+            } else if (count == 0) {
+                state.errors.add(new UserImportErrorDTO(pending.line(), pending.row().rut(),
+                    "A user with this RUT or phone number is already registered"));
+            } else {
+                state.errors.add(new UserImportErrorDTO(pending.line(), pending.row().rut(), "Could not insert row"));
+            }
+        }
+    }
+
+    private List<Object[]> hashAll(List<PendingUser> batch) {
+        List<Callable<Object[]>> tasks = new ArrayList<>(batch.size());
+        for (PendingUser pending : batch) {
+            tasks.add(() -> toArgs(pending.row()));
+        }
+
+        try {
+            List<Object[]> args = new ArrayList<>(batch.size());
+            for (Future<Object[]> future : hashingPool.invokeAll(tasks)) {
+                args.add(future.get());
+            }
+            return args;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Object[] toArgs(RegisterRequestDTO row) {
+        String password = row.password() != null ? row.password() : randomPassword();
+        String lastNames = row.lastnames() != null ? row.lastnames() : "";
+        String username = row.names() + lastNames;
+
+        return new Object[]{
+                UUID.randomUUID(),
+                row.rut(),
+                Integer.valueOf(row.number()),
+                username.length() > MAX_USERNAME_LENGTH ? username.substring(0, MAX_USERNAME_LENGTH) : username,
+                row.names(),
+                row.lastnames(),
+                passwordEncoder.encode(password),
+                row.address()
+        };
+    }
+
+    private int[] insertOneByOne(List<Object[]> args) {
+        int[] counts = new int[args.size()];
+        for (int i = 0; i < args.size(); i++) {
+            Object[] rowArgs = args.get(i);
+            try {
+                Integer count = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_USER_SQL, rowArgs));
+                counts[i] = count != null ? count : Statement.EXECUTE_FAILED;
+            } catch (DataAccessException e) {
+                counts[i] = Statement.EXECUTE_FAILED;
+            }
+        }
+        return counts;
+    }
+
+    private String randomPassword() {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record PendingUser(int line, RegisterRequestDTO row) {
+    }
+
+    /**
+     * Counters and uniqueness sets of one import
+     */
+    private static final class ImportState {
+        private int line;
+        private int rows;
+        private int imported;
+        private final List<UserImportErrorDTO> errors = new ArrayList<>();
+        private final Set<String> ruts = new HashSet<>();
+        private final Set<Integer> numbers = new HashSet<>();
+    }
+}
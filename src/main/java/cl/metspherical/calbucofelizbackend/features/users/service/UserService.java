@@ -1,8 +1,8 @@
 package cl.metspherical.calbucofelizbackend.features.users.service;
 
-import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
 import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResponseDTO;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResultProjection;
 import cl.metspherical.calbucofelizbackend.features.users.dto.UserSummaryDTO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,11 +13,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_SEARCH_RESULTS = 20;
+
     private final UserRepository userRepository;
 
     /**
      * Searches for users based on username, names, or lastNames
-     * 
+     * Results are ranked by trigram similarity to the search term
+     *
      * @param searchTerm The search term to look for in user fields
      * @return UserSearchResponseDTO with list of matching users and their statistics
      */
@@ -27,13 +30,10 @@ public class UserService {
         }
 
         String normalizedSearchTerm = searchTerm.trim();
-        
-        // Find users with posts eagerly loaded for statistics calculation
-        List<User> users = userRepository.findUsersWithPostsAndLikesBySearchTerm(normalizedSearchTerm);
 
-        // Convert to DTO and limit results
-        List<UserSummaryDTO> userSummaries = users.stream()
-                .limit(20)
+        // Ranked search with post and like statistics computed in the same query
+        List<UserSummaryDTO> userSummaries = userRepository
+                .searchUsersRanked(normalizedSearchTerm, MAX_SEARCH_RESULTS).stream()
                 .map(this::convertToUserSummaryDTO)
                 .toList();
 
@@ -41,21 +41,14 @@ public class UserService {
     }
 
     /**
-     * Converts User entity to UserSummaryDTO with post and like counts
+     * Converts a search result row to UserSummaryDTO
      */
-    private UserSummaryDTO convertToUserSummaryDTO(User user) {
-
-        // Calculate post count from user's posts relationship
-        Integer postCount = user.getPosts().size();
-        
-        // Count total likes across all user's posts using dedicated query
-        Integer totalLikes = userRepository.countLikesByUserId(user.getId());
-        
+    private UserSummaryDTO convertToUserSummaryDTO(UserSearchResultProjection result) {
         return new UserSummaryDTO(
-                user.getUsername(),
-                user.getAvatar(),
-                totalLikes != null ? totalLikes : 0,
-                postCount
+                result.getUsername(),
+                result.getAvatar(),
+                result.getTotalLikes() != null ? result.getTotalLikes() : 0,
+                result.getPostCount() != null ? result.getPostCount() : 0
         );
     }
 }
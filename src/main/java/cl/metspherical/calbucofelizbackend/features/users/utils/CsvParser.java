@@ -0,0 +1,56 @@
+package cl.metspherical.calbucofelizbackend.features.users.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 line parser: comma-separated fields, optionally quoted,
+ * with "" as an escaped quote inside quoted fields
+ */
+public class CsvParser {
+
+    // Private constructor to hide the implicit public one
+    private CsvParser() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Splits a CSV line into fields
+     *
+     * @param line The line to parse (without the line terminator)
+     * @return Fields in order, unquoted
+     * @throws IllegalArgumentException if a quoted field is not closed on the same line
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
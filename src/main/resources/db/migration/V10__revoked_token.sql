@@ -0,0 +1,15 @@
+-- Revoked access and refresh tokens. TOKEN rows revoke a single token by its
+-- jti; USER rows (id = user ID) revoke every token of a user issued before
+-- not_before, e.g. after a password reset. Rows are only needed until the
+-- tokens they cover expire, then they are pruned.
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    scope VARCHAR(8) NOT NULL,
+    not_before TIMESTAMP WITH TIME ZONE,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_token_expires_at ON revoked_token (expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_token_revoked_at ON revoked_token (revoked_at);
@@ -0,0 +1,19 @@
+-- Outbox of SMS messages, written in the same transaction as the change that
+-- triggers them and delivered by SmsDispatcher. Dispatchers claim due messages
+-- with FOR UPDATE SKIP LOCKED; a SENDING message whose lease expired (dispatcher
+-- crashed) becomes claimable again. The body is cleared once the message is
+-- SENT or DEAD, so temporary passwords do not stay in the table.
+CREATE TABLE IF NOT EXISTS sms_outbox (
+    id UUID PRIMARY KEY,
+    phone_number VARCHAR(20) NOT NULL,
+    body VARCHAR(480),
+    status VARCHAR(16) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    locked_until TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    sent_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_sms_outbox_due ON sms_outbox (status, next_attempt_at);
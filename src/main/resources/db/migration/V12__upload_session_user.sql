@@ -0,0 +1,2 @@
+-- Open uploads are counted per user when a new one is created
+CREATE INDEX IF NOT EXISTS idx_upload_session_user_id ON upload_session (user_id, expires_at);
@@ -0,0 +1,8 @@
+-- Supports keyset pagination of the post feed: ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_post_created_at_id ON post (created_at DESC, id DESC);
+
+-- Author filter joins post -> users on user_id
+CREATE INDEX IF NOT EXISTS idx_post_user_id ON post (user_id);
+
+-- Category filter walks post_has_category from the category side
+CREATE INDEX IF NOT EXISTS idx_post_has_category_category_id ON post_has_category (category_id, post_id);
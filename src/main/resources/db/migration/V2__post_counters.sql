@@ -0,0 +1,8 @@
+-- Denormalized counters read by the feed and detail endpoints
+ALTER TABLE post ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE post ADD COLUMN IF NOT EXISTS comment_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from the existing rows
+UPDATE post p
+SET like_count = (SELECT COUNT(*) FROM post_like l WHERE l.post_id = p.id),
+    comment_count = (SELECT COUNT(*) FROM comment c WHERE c.post_id = p.id);
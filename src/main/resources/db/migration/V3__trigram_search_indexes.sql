@@ -0,0 +1,9 @@
+-- Trigram indexes so the LOWER(x) LIKE '%term%' filters and similarity ranking
+-- can use an index instead of scanning category, users and post
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_category_name_trgm ON category USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_names_trgm ON users USING gin (lower(names) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_last_names_trgm ON users USING gin (lower(last_names) gin_trgm_ops);
@@ -0,0 +1,8 @@
+-- Content-addressed cache of moderation verdicts and uploaded image URLs,
+-- keyed by the SHA-256 of the image bytes
+CREATE TABLE IF NOT EXISTS media_fingerprint (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    safe BOOLEAN,
+    url VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
@@ -0,0 +1,4 @@
+-- Smaller renditions generated at upload time; NULL when the source was not larger
+ALTER TABLE post_image ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(500);
+ALTER TABLE post_image ADD COLUMN IF NOT EXISTS medium_url VARCHAR(500);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_small VARCHAR(500);
@@ -0,0 +1,2 @@
+-- BlurHash placeholder painted by clients while the image loads
+ALTER TABLE post_image ADD COLUMN IF NOT EXISTS placeholder VARCHAR(64);
@@ -0,0 +1,20 @@
+-- Posts created in async mode stay PENDING until their media has been processed
+ALTER TABLE post ADD COLUMN IF NOT EXISTS status VARCHAR(16) NOT NULL DEFAULT 'PUBLISHED';
+
+-- Persistent queue of media processing jobs for PENDING posts.
+-- Workers claim due jobs with FOR UPDATE SKIP LOCKED; a RUNNING job whose lease
+-- expired (worker crashed) becomes claimable again.
+CREATE TABLE IF NOT EXISTS media_job (
+    id UUID PRIMARY KEY,
+    post_id UUID NOT NULL REFERENCES post (id) ON DELETE CASCADE,
+    user_id UUID NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    locked_until TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_media_job_due ON media_job (status, next_attempt_at);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_media_job_post_id ON media_job (post_id);
@@ -0,0 +1,14 @@
+-- Upload slots signed for direct client-to-Cloudinary uploads.
+-- A slot is claimed (deleted) when its post is finalized; expired slots are
+-- cleaned up together with any asset uploaded to them.
+CREATE TABLE IF NOT EXISTS direct_upload (
+    public_id VARCHAR(255) PRIMARY KEY,
+    user_id UUID NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_direct_upload_expires_at ON direct_upload (expires_at);
+
+-- Jobs of directly uploaded posts reference the stored assets instead of a spool entry
+ALTER TABLE media_job ADD COLUMN IF NOT EXISTS public_ids TEXT;
@@ -0,0 +1,15 @@
+-- Resumable (tus-like) uploads: bytes are appended to a spool file and the
+-- committed offset is kept here, so an upload survives dropped connections
+-- and restarts. Expired sessions are garbage-collected with their file.
+CREATE TABLE IF NOT EXISTS upload_session (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    upload_length BIGINT NOT NULL,
+    upload_offset BIGINT NOT NULL DEFAULT 0,
+    filename VARCHAR(255),
+    content_type VARCHAR(100),
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_session_expires_at ON upload_session (expires_at);
@@ -0,0 +1,75 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.Role;
+import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.common.enums.RoleName;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 120_000, "calbuco-test");
+
+    private final User user = User.builder()
+            .id(UUID.randomUUID())
+            .rut("12345678-5")
+            .username("vecino")
+            .roles(Set.of(Role.builder().name(RoleName.MODERADOR).build()))
+            .build();
+
+    @Test
+    void shouldVerifyAccessTokenInOnePass() {
+        // Given
+        String token = jwtService.generateAccessToken(user);
+
+        // When
+        JwtPrincipal principal = jwtService.verify(token);
+
+        // Then
+        assertThat(principal.userId()).isEqualTo(user.getId());
+        assertThat(principal.username()).isEqualTo("vecino");
+        assertThat(principal.roles()).containsExactly("MODERADOR");
+        assertThat(principal.tokenId()).isNotNull();
+        assertThat(principal.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void shouldGiveEveryTokenItsOwnId() {
+        // When
+        JwtPrincipal first = jwtService.verify(jwtService.generateAccessToken(user));
+        JwtPrincipal second = jwtService.verify(jwtService.generateAccessToken(user));
+
+        // Then
+        assertThat(first.tokenId()).isNotEqualTo(second.tokenId());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        // Given
+        JwtService otherService = new JwtService(SECRET.toUpperCase(), 60_000, 120_000, "calbuco-test");
+        String token = otherService.generateAccessToken(user);
+
+        // When / Then
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given
+        JwtService expiringService = new JwtService(SECRET, -1_000, 120_000, "calbuco-test");
+        String token = expiringService.generateAccessToken(user);
+
+        // When / Then
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtException.class);
+    }
+}
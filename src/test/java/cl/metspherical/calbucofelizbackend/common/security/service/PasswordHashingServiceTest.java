@@ -0,0 +1,77 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldVerifyPasswordsOffTheCallingThread() {
+        // Given
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        PasswordHashingService service = new PasswordHashingService(encoder, executor, 5_000);
+        String hash = encoder.encode("secreto123");
+
+        // When / Then
+        assertThat(service.matches("secreto123", hash)).isTrue();
+        assertThat(service.matches("otra", hash)).isFalse();
+        assertThat(service.matches("secreto123", null)).isFalse();
+    }
+
+    @Test
+    void shouldRejectWith429WhenSaturated() throws InterruptedException {
+        // Given: the only thread is busy and the queue is full
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(4), executor, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+
+        // When / Then
+        try {
+            assertThatThrownBy(() -> service.matches("secreto123", "$2a$04$abcdefghijklmnopqrstuv"))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                    .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void shouldAskForRehashWhenStoredCostIsLower() {
+        // Given
+        String weakHash = new BCryptPasswordEncoder(4).encode("secreto123");
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(5), executor, 5_000);
+
+        // When / Then
+        assertThat(service.needsRehash(weakHash)).isTrue();
+        assertThat(service.needsRehash(service.encode("secreto123"))).isFalse();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
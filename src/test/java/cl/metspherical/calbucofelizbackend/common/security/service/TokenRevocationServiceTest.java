@@ -0,0 +1,107 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.RevokedToken;
+import cl.metspherical.calbucofelizbackend.common.enums.RevocationScope;
+import cl.metspherical.calbucofelizbackend.common.repository.RevokedTokenRepository;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 604_800_000L, 1_000, 0.01);
+        lenient().when(revokedTokenRepository.save(any(RevokedToken.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldRevokeOnlyTheLoggedOutToken() {
+        // Given
+        JwtPrincipal loggedOut = principal(Instant.now());
+        JwtPrincipal otherSession = principal(Instant.now());
+
+        // When
+        tokenRevocationService.revoke(loggedOut);
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked(loggedOut)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(otherSession)).isFalse();
+    }
+
+    @Test
+    void shouldRevokeTokensIssuedBeforeAPasswordReset() {
+        // Given
+        JwtPrincipal beforeReset = principal(Instant.now().minusSeconds(60));
+
+        // When
+        tokenRevocationService.revokeAllForUser(userId);
+        JwtPrincipal afterReset = principal(Instant.now().plusSeconds(1));
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked(beforeReset)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(afterReset)).isFalse();
+    }
+
+    @Test
+    void shouldPickUpRevocationsFromOtherInstances() {
+        // Given
+        JwtPrincipal revokedElsewhere = principal(Instant.now());
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                RevokedToken.builder()
+                        .id(revokedElsewhere.tokenId())
+                        .userId(userId)
+                        .scope(RevocationScope.TOKEN)
+                        .expiresAt(LocalDateTime.now().plusMinutes(15))
+                        .revokedAt(LocalDateTime.now())
+                        .build()));
+        tokenRevocationService.load();
+
+        // When
+        tokenRevocationService.sync();
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked(revokedElsewhere)).isTrue();
+    }
+
+    @Test
+    void shouldForgetRevocationsOnceTheirTokensExpired() {
+        // Given
+        JwtPrincipal expired = new JwtPrincipal(userId, "vecino", List.of(), UUID.randomUUID(),
+                Instant.now().minusSeconds(120), Instant.now().minusSeconds(60));
+        tokenRevocationService.revoke(expired);
+
+        // When
+        tokenRevocationService.prune();
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked(expired)).isFalse();
+    }
+
+    private JwtPrincipal principal(Instant issuedAt) {
+        return new JwtPrincipal(userId, "vecino", List.of(), UUID.randomUUID(), issuedAt, issuedAt.plusSeconds(900));
+    }
+}
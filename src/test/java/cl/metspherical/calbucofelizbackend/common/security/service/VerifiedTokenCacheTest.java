@@ -0,0 +1,80 @@
+package cl.metspherical.calbucofelizbackend.common.security.service;
+
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, meterRegistry, 100, 300);
+    }
+
+    @Test
+    void shouldVerifyRepeatedTokenOnlyOnce() {
+        // Given
+        JwtPrincipal principal = new JwtPrincipal(UUID.randomUUID(), "vecino", List.of("LIDER"),
+                UUID.randomUUID(), Instant.now(), Instant.now().plusSeconds(600));
+        when(jwtService.verify("token")).thenReturn(principal);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(verifiedTokenCache.verify("token")).isEqualTo(principal);
+        }
+
+        // Then
+        verify(jwtService, times(1)).verify("token");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.principals").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldNotCacheTokensThatAlreadyExpired() {
+        // Given
+        JwtPrincipal principal = new JwtPrincipal(UUID.randomUUID(), "vecino", List.of(),
+                UUID.randomUUID(), Instant.now().minusSeconds(60), Instant.now().minusSeconds(1));
+        when(jwtService.verify("token")).thenReturn(principal);
+
+        // When
+        verifiedTokenCache.verify("token");
+        verifiedTokenCache.verify("token");
+
+        // Then
+        verify(jwtService, times(2)).verify("token");
+    }
+
+    @Test
+    void shouldNotCacheFailedVerifications() {
+        // Given
+        when(jwtService.verify("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        // When / Then
+        assertThatThrownBy(() -> verifiedTokenCache.verify("expired")).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> verifiedTokenCache.verify("expired")).isInstanceOf(ExpiredJwtException.class);
+        verify(jwtService, times(2)).verify("expired");
+    }
+}
@@ -0,0 +1,116 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GifReencoderTest {
+
+    private static final String IMAGE_METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+
+    private final DecodeBudget decodeBudget = new DecodeBudget(64, 1000);
+    private final GifReencoder gifReencoder = new GifReencoder(decodeBudget, 300, 16, 250);
+
+    @Test
+    void shouldDownscaleAndMergeRepeatedFramesKeepingTiming() throws IOException {
+        // Given: blue, red, red, blue at 70 ms each
+        byte[] gif = animatedGif(2000, 1000, List.of(Color.BLUE, Color.RED, Color.RED, Color.BLUE), 7);
+
+        // When
+        byte[] reencoded = gifReencoder.reencode(gif, 1080);
+
+        // Then
+        ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+        reader.setInput(ImageIO.createImageInputStream(new ByteArrayInputStream(reencoded)));
+        assertThat(reader.getNumImages(true)).isEqualTo(3);
+        assertThat(reader.getWidth(0)).isEqualTo(1080);
+        assertThat(reader.getHeight(0)).isEqualTo(540);
+
+        List<Integer> delays = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(IMAGE_METADATA_FORMAT);
+            IIOMetadataNode control = (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+            delays.add(Integer.parseInt(control.getAttribute("delayTime")));
+        }
+        assertThat(delays).containsExactly(7, 14, 7);
+    }
+
+    @Test
+    void shouldRejectGifOverTheFrameBudget() throws IOException {
+        // Given
+        byte[] gif = animatedGif(100, 100, List.of(Color.BLUE, Color.RED, Color.GREEN), 5);
+
+        // When & Then
+        assertThatThrownBy(() -> new GifReencoder(decodeBudget, 2, 16, 250).reencode(gif, 1080))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void shouldRejectGifWhoseCanvasExceedsTheLimit() throws IOException {
+        // Given: 2000 x 1000 is 2 megapixels
+        byte[] gif = animatedGif(2000, 1000, List.of(Color.BLUE), 5);
+
+        // When & Then
+        assertThatThrownBy(() -> new GifReencoder(decodeBudget, 300, 1, 250).reencode(gif, 1080))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void shouldReleaseDecodeBudgetAfterReencoding() throws IOException {
+        // Given
+        byte[] gif = animatedGif(2000, 1000, List.of(Color.BLUE, Color.RED), 5);
+
+        // When
+        gifReencoder.reencode(gif, 1080);
+
+        // Then
+        assertThat(decodeBudget.availablePermits()).isEqualTo(64);
+    }
+
+    private byte[] animatedGif(int width, int height, List<Color> colors, int delay) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(ios);
+            writer.prepareWriteSequence(null);
+            for (Color color : colors) {
+                BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2d = frame.createGraphics();
+                g2d.setColor(color);
+                g2d.fillRect(0, 0, width, height);
+                g2d.dispose();
+
+                IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(IMAGE_METADATA_FORMAT);
+                IIOMetadataNode control = (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+                control.setAttribute("delayTime", Integer.toString(delay));
+                metadata.setFromTree(IMAGE_METADATA_FORMAT, root);
+                writer.writeToSequence(new IIOImage(frame, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
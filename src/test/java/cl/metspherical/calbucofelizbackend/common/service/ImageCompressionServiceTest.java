@@ -0,0 +1,142 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageCompressionServiceTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DecodeBudget decodeBudget = new DecodeBudget(64, 1000);
+    private final ImageCompressionService imageCompressionService =
+            new ImageCompressionService(decodeBudget, executor, meterRegistry,
+                    new GifReencoder(decodeBudget, 300, 16, 250),
+                    new JpegEncoder("adaptive", 8192, 30720, 92160, 256000, 2));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldPickLargestSubsamplingThatKeepsTargetSize() {
+        assertThat(ImageCompressionService.subsamplingFactor(8000, 6000)).isEqualTo(7);
+        assertThat(ImageCompressionService.subsamplingFactor(2000, 1000)).isEqualTo(1);
+        assertThat(ImageCompressionService.subsamplingFactor(800, 600)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDownscaleLargeImageToTargetSize() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile(
+                "image", "photo.png", "image/png", encode(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "png"));
+
+        // When
+        byte[] compressed = imageCompressionService.compressImage(UploadBuffer.read(file));
+
+        // Then
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(compressed));
+        assertThat(result.getWidth()).isEqualTo(1080);
+        assertThat(result.getHeight()).isEqualTo(810);
+    }
+
+    @Test
+    void shouldRejectUnreadableImage() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("image", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+
+        // When & Then
+        assertThatThrownBy(() -> imageCompressionService.compressImage(UploadBuffer.read(file)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unable to read image file");
+    }
+
+    @Test
+    void shouldCompressImagesInParallelKeepingInputOrder() throws IOException {
+        // Given
+        MockMultipartFile wide = new MockMultipartFile(
+                "image", "wide.png", "image/png", encode(new BufferedImage(2000, 500, BufferedImage.TYPE_INT_RGB), "png"));
+        MockMultipartFile tall = new MockMultipartFile(
+                "image", "tall.png", "image/png", encode(new BufferedImage(300, 600, BufferedImage.TYPE_INT_RGB), "png"));
+
+        // When
+        List<ProcessedImage> compressed = imageCompressionService.compressImages(UploadBuffer.readAll(List.of(wide, tall)));
+
+        // Then
+        assertThat(read(compressed.get(0).full()).getWidth()).isEqualTo(1080);
+        assertThat(read(compressed.get(1).full()).getWidth()).isEqualTo(300);
+        assertThat(meterRegistry.get("image.compression.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldGenerateOnlyRenditionsSmallerThanTheSource() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile(
+                "image", "tall.png", "image/png", encode(new BufferedImage(300, 600, BufferedImage.TYPE_INT_RGB), "png"));
+
+        // When
+        ProcessedImage processed = imageCompressionService.compressPostImage(UploadBuffer.read(file));
+
+        // Then
+        assertThat(processed.renditions()).containsOnlyKeys(ImageVariant.THUMBNAIL, ImageVariant.FULL);
+        BufferedImage thumbnail = read(processed.renditions().get(ImageVariant.THUMBNAIL));
+        assertThat(thumbnail.getWidth()).isEqualTo(160);
+        assertThat(thumbnail.getHeight()).isEqualTo(320);
+        assertThat(processed.placeholder()).hasSize(28);
+    }
+
+    @Test
+    void shouldCropSmallAvatarToASquare() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile(
+                "avatar", "avatar.png", "image/png", encode(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png"));
+
+        // When
+        ProcessedImage processed = imageCompressionService.compressAvatar(UploadBuffer.read(file));
+
+        // Then
+        BufferedImage small = read(processed.renditions().get(ImageVariant.AVATAR_SMALL));
+        assertThat(small.getWidth()).isEqualTo(96);
+        assertThat(small.getHeight()).isEqualTo(96);
+        assertThat(read(processed.full()).getWidth()).isEqualTo(800);
+        assertThat(processed.placeholder()).isNull();
+    }
+
+    @Test
+    void shouldRejectWhenCompressionExecutorIsFull() {
+        // Given
+        executor.shutdown();
+        MockMultipartFile file = new MockMultipartFile("image", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+
+        // When & Then
+        assertThatThrownBy(() -> imageCompressionService.compressImages(UploadBuffer.readAll(List.of(file))))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Too many images");
+    }
+
+    private BufferedImage read(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.enums.ImageVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JpegEncoderTest {
+
+    private final JpegEncoder adaptiveEncoder = new JpegEncoder("adaptive", 8192, 30720, 92160, 256000, 2);
+    private final JpegEncoder fixedEncoder = new JpegEncoder("fixed", 8192, 30720, 92160, 256000, 2);
+
+    @AfterEach
+    void tearDown() {
+        adaptiveEncoder.close();
+        fixedEncoder.close();
+    }
+
+    @Test
+    void shouldLowerQualityToFitTheRenditionBudget() throws IOException {
+        // Given
+        BufferedImage detailed = texturedImage(640, 480);
+
+        // When
+        byte[] adaptive = adaptiveEncoder.encode(detailed, ImageVariant.MEDIUM);
+        byte[] fixed = fixedEncoder.encode(detailed, ImageVariant.MEDIUM);
+
+        // Then
+        assertThat(fixed.length).isGreaterThan(92160);
+        assertThat(adaptive.length).isLessThanOrEqualTo(92160);
+    }
+
+    @Test
+    void shouldWriteProgressiveJpeg() throws IOException {
+        // Given
+        BufferedImage flat = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+
+        // When
+        byte[] encoded = adaptiveEncoder.encode(flat, ImageVariant.THUMBNAIL);
+
+        // Then
+        ImageReader reader = ImageIO.getImageReadersByFormatName("jpeg").next();
+        reader.setInput(ImageIO.createImageInputStream(new ByteArrayInputStream(encoded)));
+        IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(0).getAsTree("javax_imageio_jpeg_image_1.0");
+        IIOMetadataNode frameHeader = (IIOMetadataNode) root.getElementsByTagName("sof").item(0);
+        assertThat(frameHeader.getAttribute("process")).isEqualTo("2");
+    }
+
+    /**
+     * Smooth gradient with light noise, compressible enough for the search to land under budget
+     */
+    private BufferedImage texturedImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(48);
+                image.setRGB(x, y, new Color((x * 255 / width + noise) % 256, (y * 255 / height + noise) % 256, noise).getRGB());
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,201 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.LeasedTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class LeasedQueueWorkerTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TestWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new TestWorker(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.shutdown();
+    }
+
+    @Test
+    void shouldClaimDueTasksWithLeaseAndCountTheAttempt() {
+        // Given
+        TestTask task = new TestTask(0);
+        worker.due = List.of(task);
+
+        // When
+        List<TestTask> claimed = worker.claim(4);
+
+        // Then
+        assertThat(claimed).containsExactly(task);
+        assertThat(task.status).isEqualTo("RUNNING");
+        assertThat(task.getAttempts()).isEqualTo(1);
+        assertThat(task.getLockedUntil()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void shouldRequeueWithBackoffWhenAttemptFailsTransiently() {
+        // Given
+        TestTask task = new TestTask(2);
+        worker.failure = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Provider timeout");
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        worker.run(task);
+
+        // Then
+        assertThat(task.status).isEqualTo("QUEUED");
+        assertThat(task.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(4));
+        assertThat(task.getLockedUntil()).isNull();
+        assertThat(task.getLastError()).contains("Provider timeout");
+    }
+
+    @Test
+    void shouldRejectWithoutRetryingOnClientError() {
+        // Given
+        TestTask task = new TestTask(1);
+        worker.failure = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number");
+
+        // When
+        worker.run(task);
+
+        // Then
+        assertThat(task.status).isEqualTo("REJECTED");
+        assertThat(task.getLastError()).isEqualTo("Invalid number");
+    }
+
+    @Test
+    void shouldRejectWhenAttemptsRunOut() {
+        // Given
+        TestTask task = new TestTask(3);
+        worker.failure = new RuntimeException("Connection reset");
+
+        // When
+        worker.run(task);
+
+        // Then
+        assertThat(task.status).isEqualTo("REJECTED");
+        assertThat(task.getLastError()).isEqualTo("Connection reset");
+    }
+
+    @Test
+    void shouldDoubleBackoffUpToTheMaximum() {
+        // When & Then
+        assertThat(LeasedQueueWorker.backoffMillis(1, 2000, 300000)).isEqualTo(2000);
+        assertThat(LeasedQueueWorker.backoffMillis(3, 2000, 300000)).isEqualTo(8000);
+        assertThat(LeasedQueueWorker.backoffMillis(20, 2000, 300000)).isEqualTo(300000);
+    }
+
+    private static class TestTask implements LeasedTask {
+
+        private final UUID id = UUID.randomUUID();
+        private String status = "QUEUED";
+        private int attempts;
+        private LocalDateTime nextAttemptAt;
+        private LocalDateTime lockedUntil;
+        private String lastError;
+
+        TestTask(int attempts) {
+            this.attempts = attempts;
+        }
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        LocalDateTime getNextAttemptAt() {
+            return nextAttemptAt;
+        }
+
+        @Override
+        public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+            this.nextAttemptAt = nextAttemptAt;
+        }
+
+        LocalDateTime getLockedUntil() {
+            return lockedUntil;
+        }
+
+        @Override
+        public void setLockedUntil(LocalDateTime lockedUntil) {
+            this.lockedUntil = lockedUntil;
+        }
+
+        String getLastError() {
+            return lastError;
+        }
+
+        @Override
+        public void setLastError(String lastError) {
+            this.lastError = lastError;
+        }
+    }
+
+    private static class TestWorker extends LeasedQueueWorker<TestTask> {
+
+        private List<TestTask> due = List.of();
+        private Exception failure;
+
+        TestWorker(PlatformTransactionManager transactionManager) {
+            super("test", transactionManager, 1, 3, 2000, 300000, 60000);
+        }
+
+        @Override
+        protected List<TestTask> lockDue(int limit) {
+            return due;
+        }
+
+        @Override
+        protected void markRunning(TestTask task) {
+            task.status = "RUNNING";
+        }
+
+        @Override
+        protected void execute(TestTask task) throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            task.status = "DONE";
+        }
+
+        @Override
+        protected void requeue(TestTask task) {
+            task.status = "QUEUED";
+        }
+
+        @Override
+        protected void reject(TestTask task, String reason) {
+            task.status = "REJECTED";
+            task.setLastError(reason);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage.UploadedImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalMediaStorageTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3};
+
+    @TempDir
+    Path mediaDir;
+
+    @Test
+    void shouldStoreContentAddressedFilesOnce() throws IOException {
+        // Given
+        LocalMediaStorage storage = new LocalMediaStorage(mediaDir.toString(), "/media/");
+
+        // When
+        UploadedImage first = storage.uploadImageAsset(JPEG);
+        UploadedImage second = storage.uploadImageAsset(JPEG.clone());
+
+        // Then
+        String id = MediaFingerprintCache.sha256(JPEG) + ".jpg";
+        assertThat(first.publicId()).isNull();
+        assertThat(first.url()).isEqualTo("/media/" + id);
+        assertThat(second.publicId()).isNull();
+        assertThat(second.url()).isEqualTo(first.url());
+        assertThat(storage.fetchImage(id, 320)).containsExactly(JPEG);
+        assertThat(storage.contentType(id)).isEqualTo("image/jpeg");
+        try (var files = Files.walk(mediaDir)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldKeepSharedFilesWhenDeleted() throws IOException {
+        // Given
+        LocalMediaStorage storage = new LocalMediaStorage(mediaDir.toString(), "/media");
+        storage.uploadImageAsset(JPEG);
+        String id = MediaFingerprintCache.sha256(JPEG) + ".jpg";
+
+        // When
+        storage.deleteImage(id);
+
+        // Then
+        assertThat(storage.fetchImage(id, 320)).containsExactly(JPEG);
+    }
+
+    @Test
+    void shouldRejectIdsThatAreNotContentHashes() {
+        // Given
+        LocalMediaStorage storage = new LocalMediaStorage(mediaDir.toString(), "/media");
+
+        // When & Then
+        assertThatThrownBy(() -> storage.resolve("../../etc/passwd"))
+                .isInstanceOf(NoSuchFileException.class);
+        assertThatThrownBy(() -> storage.fetchImage("posts/user/image", 1080))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+}
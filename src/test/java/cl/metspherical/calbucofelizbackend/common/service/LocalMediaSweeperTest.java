@@ -0,0 +1,114 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocalMediaSweeperTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+
+    @TempDir
+    Path mediaDir;
+
+    @Mock
+    private MediaFingerprintCache mediaFingerprintCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalMediaStorage storage;
+    private LocalMediaSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalMediaStorage(mediaDir.toString(), "/media");
+        sweeper = new LocalMediaSweeper(storage, mediaFingerprintCache, jdbcTemplate, 3600);
+    }
+
+    @Test
+    void shouldForgetUnreferencedFilesBeforeDeletingThem() throws IOException {
+        // Given
+        String kept = stale(JPEG);
+        String orphan = stale(PNG);
+        referenced("/media/" + kept);
+
+        // When
+        int firstRun = sweeper.sweep();
+        int secondRun = sweeper.sweep();
+
+        // Then
+        assertThat(firstRun).isZero();
+        assertThat(secondRun).isEqualTo(1);
+        verify(mediaFingerprintCache).forgetUrls(Set.of("/media/" + orphan));
+        assertThat(Files.exists(storage.resolve(kept))).isTrue();
+        assertThat(Files.exists(storage.resolve(orphan))).isFalse();
+    }
+
+    @Test
+    void shouldKeepFilesUploadedAgainAfterBeingForgotten() throws IOException {
+        // Given
+        String orphan = stale(PNG);
+        referenced();
+        sweeper.sweep();
+
+        // When
+        storage.uploadImageAsset(PNG.clone());
+        int deleted = sweeper.sweep();
+
+        // Then
+        assertThat(deleted).isZero();
+        assertThat(Files.exists(storage.resolve(orphan))).isTrue();
+    }
+
+    @Test
+    void shouldKeepRecentFilesWhosePostIsNotCommittedYet() throws IOException {
+        // Given
+        storage.uploadImageAsset(JPEG);
+        referenced();
+
+        // When
+        sweeper.sweep();
+        int deleted = sweeper.sweep();
+
+        // Then
+        assertThat(deleted).isZero();
+        assertThat(storage.fetchImage(MediaFingerprintCache.sha256(JPEG) + ".jpg", 320)).containsExactly(JPEG);
+    }
+
+    /**
+     * Stores an image and backdates it past the grace period
+     */
+    private String stale(byte[] image) throws IOException {
+        String url = storage.uploadImageAsset(image).url();
+        String id = url.substring(url.lastIndexOf('/') + 1);
+        Files.setLastModifiedTime(storage.resolve(id), FileTime.from(Instant.now().minusSeconds(7200)));
+        return id;
+    }
+
+    private void referenced(String... urls) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class),
+                eq("/media/%"), eq("/media/%"), eq("/media/%"), eq("/media/%"), eq("/media/%")))
+                .thenReturn(List.of(urls));
+    }
+}
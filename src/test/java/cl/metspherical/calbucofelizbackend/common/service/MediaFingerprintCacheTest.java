@@ -0,0 +1,88 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.MediaFingerprint;
+import cl.metspherical.calbucofelizbackend.common.repository.MediaFingerprintRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MediaFingerprintCacheTest {
+
+    @Mock
+    private MediaFingerprintRepository mediaFingerprintRepository;
+
+    private MediaFingerprintCache mediaFingerprintCache;
+
+    @BeforeEach
+    void setUp() {
+        mediaFingerprintCache = new MediaFingerprintCache(mediaFingerprintRepository, 100);
+    }
+
+    @Test
+    void shouldHashIdenticalBytesToTheSameDigest() {
+        assertThat(MediaFingerprintCache.sha256(new byte[]{1, 2, 3}))
+                .isEqualTo(MediaFingerprintCache.sha256(new byte[]{1, 2, 3}))
+                .hasSize(64)
+                .isNotEqualTo(MediaFingerprintCache.sha256(new byte[]{3, 2, 1}));
+    }
+
+    @Test
+    void shouldLoadFromTableOnceAndThenServeFromMemory() {
+        // Given
+        when(mediaFingerprintRepository.findAllById(Set.of("abc")))
+                .thenReturn(List.of(MediaFingerprint.builder().sha256("abc").safe(true).url("https://cdn/abc.jpg").build()));
+
+        // When
+        Map<String, Boolean> firstLookup = mediaFingerprintCache.findVerdicts(List.of("abc"));
+        Map<String, String> secondLookup = mediaFingerprintCache.findUrls(List.of("abc"));
+
+        // Then
+        assertThat(firstLookup).containsExactlyEntriesOf(Map.of("abc", true));
+        assertThat(secondLookup).containsExactlyEntriesOf(Map.of("abc", "https://cdn/abc.jpg"));
+        verify(mediaFingerprintRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void shouldKeepVerdictWhenUrlIsRemembered() {
+        // Given
+        mediaFingerprintCache.rememberVerdict("abc", false);
+
+        // When
+        mediaFingerprintCache.rememberUrl("abc", "https://cdn/abc.jpg");
+
+        // Then
+        assertThat(mediaFingerprintCache.findVerdicts(List.of("abc"))).containsExactlyEntriesOf(Map.of("abc", false));
+        verify(mediaFingerprintRepository).upsertVerdict("abc", false);
+        verify(mediaFingerprintRepository).upsertUrl("abc", "https://cdn/abc.jpg");
+        verify(mediaFingerprintRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldStopHandingOutForgottenUrls() {
+        // Given
+        mediaFingerprintCache.rememberVerdict("abc", true);
+        mediaFingerprintCache.rememberUrl("abc", "/media/abc.jpg");
+
+        // When
+        mediaFingerprintCache.forgetUrls(Set.of("/media/abc.jpg"));
+
+        // Then
+        assertThat(mediaFingerprintCache.findUrls(List.of("abc"))).isEmpty();
+        assertThat(mediaFingerprintCache.findVerdicts(List.of("abc"))).containsExactlyEntriesOf(Map.of("abc", true));
+        verify(mediaFingerprintRepository).clearUrls(Set.of("/media/abc.jpg"));
+    }
+}
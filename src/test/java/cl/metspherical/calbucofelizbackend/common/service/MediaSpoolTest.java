@@ -0,0 +1,67 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MediaSpoolTest {
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void shouldReadBackSpooledImagesInOrderWithTheirMetadata() throws IOException {
+        // Given
+        MediaSpool spool = new MediaSpool(spoolDir.toString());
+        UUID key = UUID.randomUUID();
+        List<UploadBuffer> images = List.of(
+                UploadBuffer.of(new byte[]{1, 2, 3}, "first.jpg", "image/jpeg"),
+                UploadBuffer.of(new byte[]{4, 5}, "second.gif", "image/gif"));
+
+        // When
+        spool.write(key, images);
+        List<UploadBuffer> read = spool.read(key);
+
+        // Then
+        assertThat(read).hasSize(2);
+        assertThat(read.get(0).sha256()).isEqualTo(images.get(0).sha256());
+        assertThat(read.get(0).getOriginalFilename()).isEqualTo("first.jpg");
+        assertThat(read.get(1).sha256()).isEqualTo(images.get(1).sha256());
+        assertThat(read.get(1).getContentType()).isEqualTo("image/gif");
+    }
+
+    @Test
+    void shouldTreatEntryWithoutManifestAsMissing() throws IOException {
+        // Given
+        MediaSpool spool = new MediaSpool(spoolDir.toString());
+        UUID key = UUID.randomUUID();
+        Files.createDirectories(spoolDir.resolve(key.toString()));
+        Files.write(spoolDir.resolve(key.toString()).resolve("0"), new byte[]{1});
+
+        // When & Then
+        assertThatThrownBy(() -> spool.read(key)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void shouldDeleteTheWholeEntry() throws IOException {
+        // Given
+        MediaSpool spool = new MediaSpool(spoolDir.toString());
+        UUID key = UUID.randomUUID();
+        spool.write(key, List.of(UploadBuffer.of(new byte[]{1}, null, null)));
+
+        // When
+        spool.delete(key);
+
+        // Then
+        assertThat(spoolDir.resolve(key.toString())).doesNotExist();
+    }
+}
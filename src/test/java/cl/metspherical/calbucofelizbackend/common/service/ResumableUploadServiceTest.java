@@ -0,0 +1,229 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.UploadSession;
+import cl.metspherical.calbucofelizbackend.common.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceTest {
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @TempDir
+    Path uploadsDir;
+
+    private ResumableUploadService resumableUploadService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        resumableUploadService = new ResumableUploadService(uploadSessionRepository, uploadsDir.toString(), 1024, 3600, 2);
+        lenient().when(uploadSessionRepository.save(any(UploadSession.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldResumeAnInterruptedUploadFromTheCommittedOffset() {
+        // Given
+        UploadSession session = createTracked(6);
+
+        // When: the first chunk is cut short by a dropped connection, then the client resumes
+        long afterFirst = resumableUploadService.append(userId, session.getId(), 0, failingAfter(new byte[]{1, 2, 3}));
+        long afterSecond = resumableUploadService.append(userId, session.getId(), afterFirst,
+                new ByteArrayInputStream(new byte[]{4, 5, 6}));
+        List<UploadBuffer> completed = resumableUploadService.readCompleted(userId, List.of(session.getId()));
+
+        // Then
+        assertThat(afterFirst).isEqualTo(3);
+        assertThat(afterSecond).isEqualTo(6);
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).sha256())
+                .isEqualTo(UploadBuffer.of(new byte[]{1, 2, 3, 4, 5, 6}, null, null).sha256());
+        assertThat(completed.get(0).getOriginalFilename()).isEqualTo("photo.jpg");
+    }
+
+    @Test
+    void shouldRejectChunkAtStaleOffset() {
+        // Given
+        UploadSession session = createTracked(6);
+        resumableUploadService.append(userId, session.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2}));
+
+        // When / Then
+        assertThatThrownBy(() -> resumableUploadService.append(userId, session.getId(), 0,
+                new ByteArrayInputStream(new byte[]{1, 2})))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void shouldOnlyRejectConcurrentChunksOfTheSameUpload() {
+        // Given
+        UploadSession session = createTracked(2);
+        UploadSession other = createTracked(2);
+        long[] otherOffset = {-1};
+
+        // When: while the first chunk is being read, another chunk arrives for each upload
+        InputStream body = new ByteArrayInputStream(new byte[]{1, 2}) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (otherOffset[0] < 0) {
+                    assertThatThrownBy(() -> resumableUploadService.append(userId, session.getId(), 0,
+                            new ByteArrayInputStream(new byte[]{1, 2})))
+                            .isInstanceOf(ResponseStatusException.class)
+                            .hasMessageContaining("already being written");
+                    otherOffset[0] = resumableUploadService.append(userId, other.getId(), 0,
+                            new ByteArrayInputStream(new byte[]{3, 4}));
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+        long offset = resumableUploadService.append(userId, session.getId(), 0, body);
+
+        // Then
+        assertThat(offset).isEqualTo(2);
+        assertThat(otherOffset[0]).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectChunkBeyondTheDeclaredLengthWithoutCommitting() {
+        // Given
+        UploadSession session = createTracked(2);
+
+        // When / Then
+        assertThatThrownBy(() -> resumableUploadService.append(userId, session.getId(), 0,
+                new ByteArrayInputStream(new byte[]{1, 2, 3})))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verify(uploadSessionRepository, never()).advance(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void shouldNotHandOverIncompleteUploads() {
+        // Given
+        UploadSession session = createTracked(6);
+        resumableUploadService.append(userId, session.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2}));
+
+        // When / Then
+        assertThatThrownBy(() -> resumableUploadService.readCompleted(userId, List.of(session.getId())))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("not complete");
+    }
+
+    @Test
+    void shouldRejectUploadsLargerThanTheMaximum() {
+        // When / Then
+        assertThatThrownBy(() -> resumableUploadService.create(userId, 2048L, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void shouldRejectNewUploadWhenUserHasTooManyOpen() {
+        // Given
+        when(uploadSessionRepository.countByUserIdAndExpiresAtAfter(eq(userId), any())).thenReturn(2L);
+
+        // When / Then
+        assertThatThrownBy(() -> resumableUploadService.create(userId, 512L, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        verify(uploadSessionRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldParseTusMetadata() {
+        // Given
+        String header = "filename " + base64("foto de volcán.jpg") + ",filetype " + base64("image/jpeg") + ",is_confidential";
+
+        // When
+        Map<String, String> metadata = ResumableUploadService.parseMetadata(header);
+
+        // Then
+        assertThat(metadata)
+                .containsEntry("filename", "foto de volcán.jpg")
+                .containsEntry("filetype", "image/jpeg")
+                .containsEntry("is_confidential", "");
+    }
+
+    /**
+     * Creates an upload whose row is kept in memory, with advance() applying the conditional update
+     */
+    private UploadSession createTracked(long length) {
+        UploadSession session = resumableUploadService.create(userId, length,
+                "filename " + base64("photo.jpg") + ",filetype " + base64("image/jpeg"));
+
+        lenient().when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        lenient().when(uploadSessionRepository.advance(eq(session.getId()), anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long expected = invocation.getArgument(1);
+                    if (session.getUploadOffset() != expected) {
+                        return 0;
+                    }
+                    session.setUploadOffset(invocation.getArgument(2));
+                    return 1;
+                });
+        return session;
+    }
+
+    private static InputStream failingAfter(byte[] bytes) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position < bytes.length) {
+                    return bytes[position++];
+                }
+                throw new IOException("Connection reset");
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position >= bytes.length) {
+                    throw new IOException("Connection reset");
+                }
+                int count = Math.min(length, bytes.length - position);
+                System.arraycopy(bytes, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
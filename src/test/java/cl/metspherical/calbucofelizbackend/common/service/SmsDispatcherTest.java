@@ -0,0 +1,110 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.SmsMessage;
+import cl.metspherical.calbucofelizbackend.common.enums.SmsStatus;
+import cl.metspherical.calbucofelizbackend.common.repository.SmsOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SmsDispatcherTest {
+
+    private static final String PHONE = "+56912345678";
+    private static final String BODY = "Codigo para CalbucoFeliz es: 12345678";
+
+    @Mock
+    private SmsOutboxRepository smsOutboxRepository;
+
+    @Mock
+    private SmsGateway smsGateway;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SmsDispatcher smsDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        smsDispatcher = new SmsDispatcher(smsOutboxRepository, smsGateway, transactionManager,
+                1, 1000, 3, 2000, 300000, 60000, 7);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        smsDispatcher.shutdown();
+    }
+
+    @Test
+    void shouldMarkSentAndClearBodyWhenDelivered() {
+        // Given
+        SmsMessage message = sendingMessage(1);
+        when(smsGateway.sendSms(PHONE, BODY)).thenReturn("SM123");
+
+        // When
+        smsDispatcher.run(message);
+
+        // Then
+        assertThat(message.getStatus()).isEqualTo(SmsStatus.SENT);
+        assertThat(message.getBody()).isNull();
+        assertThat(message.getSentAt()).isNotNull();
+        verify(smsOutboxRepository).save(message);
+    }
+
+    @Test
+    void shouldKeepBodyWhenRequeued() {
+        // Given
+        SmsMessage message = sendingMessage(2);
+        when(smsGateway.sendSms(PHONE, BODY)).thenThrow(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Failed to send SMS: timeout"));
+
+        // When
+        smsDispatcher.run(message);
+
+        // Then
+        assertThat(message.getStatus()).isEqualTo(SmsStatus.QUEUED);
+        assertThat(message.getBody()).isEqualTo(BODY);
+        verify(smsOutboxRepository).save(message);
+    }
+
+    @Test
+    void shouldDeadLetterAndClearBodyWhenProviderRefusesTheMessage() {
+        // Given
+        SmsMessage message = sendingMessage(1);
+        when(smsGateway.sendSms(PHONE, BODY)).thenThrow(
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to send SMS: invalid number"));
+
+        // When
+        smsDispatcher.run(message);
+
+        // Then
+        assertThat(message.getStatus()).isEqualTo(SmsStatus.DEAD);
+        assertThat(message.getBody()).isNull();
+        assertThat(message.getLastError()).contains("invalid number");
+    }
+
+    private static SmsMessage sendingMessage(int attempts) {
+        return SmsMessage.builder()
+                .id(UUID.randomUUID())
+                .phoneNumber(PHONE)
+                .body(BODY)
+                .status(SmsStatus.SENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .lockedUntil(LocalDateTime.now().plusMinutes(1))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import cl.metspherical.calbucofelizbackend.common.domain.SmsMessage;
+import cl.metspherical.calbucofelizbackend.common.enums.SmsStatus;
+import cl.metspherical.calbucofelizbackend.common.repository.SmsOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SmsOutboxServiceTest {
+
+    @Mock
+    private SmsOutboxRepository smsOutboxRepository;
+
+    @InjectMocks
+    private SmsOutboxService smsOutboxService;
+
+    @Test
+    void shouldQueuePasswordRecoveryMessageForImmediateDelivery() {
+        // Given
+        when(smsOutboxRepository.save(any(SmsMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        SmsMessage message = smsOutboxService.enqueuePasswordRecovery("+56912345678", "12345678");
+
+        // Then
+        assertThat(message.getId()).isNotNull();
+        assertThat(message.getPhoneNumber()).isEqualTo("+56912345678");
+        assertThat(message.getBody()).isEqualTo("Codigo para CalbucoFeliz es: 12345678");
+        assertThat(message.getStatus()).isEqualTo(SmsStatus.QUEUED);
+        assertThat(message.getAttempts()).isZero();
+        assertThat(message.getNextAttemptAt()).isNotNull();
+    }
+}
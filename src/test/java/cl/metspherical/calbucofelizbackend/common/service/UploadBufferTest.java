@@ -0,0 +1,53 @@
+package cl.metspherical.calbucofelizbackend.common.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadBufferTest {
+
+    @Test
+    void shouldReadThePartOnlyOnceForEveryView() throws IOException {
+        // Given
+        byte[] content = {1, 2, 3, 4};
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getSize()).thenReturn((long) content.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+
+        // When
+        UploadBuffer buffer = UploadBuffer.read(file);
+        byte[] streamed = buffer.getInputStream().readAllBytes();
+        ByteBuffer view = buffer.asReadOnlyByteBuffer();
+
+        // Then
+        assertThat(streamed).containsExactly(content);
+        assertThat(view.remaining()).isEqualTo(content.length);
+        assertThat(buffer.sha256()).isEqualTo(MediaFingerprintCache.sha256(content));
+        verify(file, times(1)).getInputStream();
+    }
+
+    @Test
+    void shouldHandOutReadOnlyViews() throws IOException {
+        // Given
+        UploadBuffer buffer = UploadBuffer.read(
+                new MockMultipartFile("image", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3}));
+
+        // When & Then
+        assertThatThrownBy(() -> buffer.asReadOnlyByteBuffer().put((byte) 9))
+                .isInstanceOf(ReadOnlyBufferException.class);
+        assertThat(buffer.getOriginalFilename()).isEqualTo("photo.jpg");
+        assertThat(buffer.getSize()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,47 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldNeverMissAnAddedElement() {
+        // Given
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID value = UUID.randomUUID();
+            added.add(value);
+            filter.put(value);
+        }
+
+        // When / Then
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void shouldKeepFalsePositivesNearTheConfiguredRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
@@ -0,0 +1,47 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlurHashTest {
+
+    @Test
+    void shouldEncodeSizeFlagAndAverageColor() {
+        // Given
+        BufferedImage red = solid(100, 60, Color.RED);
+
+        // When
+        String hash = BlurHash.encode(red, 4, 3);
+
+        // Then: 'L' = 4x3 components, "TI:j" = DC for #FF0000
+        assertThat(hash).hasSize(28);
+        assertThat(hash.charAt(0)).isEqualTo('L');
+        assertThat(hash.substring(2, 6)).isEqualTo("TI:j");
+    }
+
+    @Test
+    void shouldProduceDifferentHashesForDifferentImages() {
+        assertThat(BlurHash.encode(solid(40, 40, Color.BLUE), 4, 3))
+                .isNotEqualTo(BlurHash.encode(solid(40, 40, Color.GREEN), 4, 3));
+    }
+
+    @Test
+    void shouldRejectInvalidComponentCounts() {
+        assertThatThrownBy(() -> BlurHash.encode(solid(10, 10, Color.RED), 10, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(color);
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,38 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteRangeTest {
+
+    @Test
+    void shouldParseClosedOpenAndSuffixRanges() {
+        // When & Then
+        assertThat(ByteRange.parse("bytes=0-99", 1000)).isEqualTo(new ByteRange(0, 99));
+        assertThat(ByteRange.parse("bytes=900-", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-100", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=990-2000", 1000)).isEqualTo(new ByteRange(990, 999));
+        assertThat(ByteRange.parse("bytes=-5000", 1000)).isEqualTo(new ByteRange(0, 999));
+    }
+
+    @Test
+    void shouldIgnoreMultipleAndMalformedRanges() {
+        // When & Then
+        assertThat(ByteRange.parse(null, 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-1,5-6", 1000)).isNull();
+        assertThat(ByteRange.parse("items=0-1", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=abc-", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=50-10", 1000)).isNull();
+    }
+
+    @Test
+    void shouldRejectRangesOutsideTheRepresentation() {
+        // When & Then
+        assertThatThrownBy(() -> ByteRange.parse("bytes=1000-", 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=-0", 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,55 @@
+package cl.metspherical.calbucofelizbackend.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldServeBurstWithoutWaiting() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        // When / Then
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+    }
+
+    @Test
+    void shouldSpaceCallsAtTheConfiguredRateOnceEmpty() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+        bucket.reserve();
+
+        // When
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+
+        // Then: 10 per second means one token every 100 ms, queued behind each other
+        assertThat(first).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(second).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void shouldRefillOverTimeUpToTheBurst() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+        bucket.reserve();
+        bucket.reserve();
+
+        // When: idle for much longer than the refill time
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // Then
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+}
@@ -2,7 +2,8 @@ package cl.metspherical.calbucofelizbackend.features.auth.service;
 
 import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
-import cl.metspherical.calbucofelizbackend.common.service.CloudinaryUploadService;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.ProfileResponseDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.UserEditRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.UserProfileResponseDTO;
@@ -29,7 +30,7 @@ class AccountServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private CloudinaryUploadService cloudinaryUploadService;
+    private MediaStorage mediaStorage;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -42,7 +43,7 @@ class AccountServiceTest {
         UUID userId = UUID.randomUUID();
         UserEditRequestDTO request = new UserEditRequestDTO(
                 "newUsername",
-                new byte[]{1, 2, 3}, // avatar
+                ProcessedImage.of(new byte[]{1, 2, 3}), // avatar
                 "newDescription", // description
                 "newNames",
                 "newLastNames",
@@ -53,7 +54,7 @@ class AccountServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(passwordEncoder.encode("newPassword")).thenReturn("encodedPassword");
-        when(cloudinaryUploadService.uploadImage(any(byte[].class))).thenReturn("newAvatarUrl");
+        when(mediaStorage.uploadImage(any(byte[].class))).thenReturn("newAvatarUrl");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserProfileResponseDTO response = accountService.updateUser(request, userId);
@@ -67,7 +68,7 @@ class AccountServiceTest {
 
         verify(userRepository).findById(userId);
         verify(passwordEncoder).encode("newPassword");
-        verify(cloudinaryUploadService).uploadImage(any(byte[].class));
+        verify(mediaStorage).uploadImage(any(byte[].class));
         verify(userRepository).save(user);
     }
 
@@ -95,7 +96,7 @@ class AccountServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         // No password change, so passwordEncoder.encode should not be called for null password
-        // No avatar change, so cloudinaryUploadService.uploadImage should not be called
+        // No avatar change, so mediaStorage.uploadImage should not be called
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserProfileResponseDTO response = accountService.updateUser(request, userId);
@@ -117,7 +118,7 @@ class AccountServiceTest {
 
         verify(userRepository).findById(userId);
         verify(passwordEncoder, never()).encode(anyString()); // password was null
-        verify(cloudinaryUploadService, never()).uploadImage(any(byte[].class)); // avatar was null
+        verify(mediaStorage, never()).uploadImage(any(byte[].class)); // avatar was null
         verify(userRepository).save(existingUser);
     }
 
@@ -141,7 +142,7 @@ class AccountServiceTest {
         UUID userId = UUID.randomUUID();
          UserEditRequestDTO request = new UserEditRequestDTO(
                 null, // username
-                new byte[]{1, 2, 3}, // avatar
+                ProcessedImage.of(new byte[]{1, 2, 3}), // avatar
                 null, // description
                 null, // names
                 null, // lastNames
@@ -151,14 +152,14 @@ class AccountServiceTest {
         user.setId(userId);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(cloudinaryUploadService.uploadImage(any(byte[].class))).thenThrow(new IOException("Upload failed"));
+        when(mediaStorage.uploadImage(any(byte[].class))).thenThrow(new IOException("Upload failed"));
 
         assertThrows(ResponseStatusException.class, () -> {
             accountService.updateUser(request, userId);
         });
 
         verify(userRepository).findById(userId);
-        verify(cloudinaryUploadService).uploadImage(any(byte[].class));
+        verify(mediaStorage).uploadImage(any(byte[].class));
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -2,7 +2,11 @@ package cl.metspherical.calbucofelizbackend.features.auth.service;
 
 import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
+import cl.metspherical.calbucofelizbackend.common.security.jwt.JwtPrincipal;
 import cl.metspherical.calbucofelizbackend.common.security.service.JwtService;
+import cl.metspherical.calbucofelizbackend.common.security.service.PasswordHashingService;
+import cl.metspherical.calbucofelizbackend.common.security.service.TokenRevocationService;
+import cl.metspherical.calbucofelizbackend.common.service.SmsOutboxService;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.LoginRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.RecoveryRequestDTO;
 import cl.metspherical.calbucofelizbackend.features.auth.dto.RegisterRequestDTO;
@@ -18,12 +22,13 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mockito; // Added for reset
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,10 +51,13 @@ class AuthenticationServiceTest {
     private JwtService jwtService;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
-    private TwilioService twilioService;
+    private SmsOutboxService smsOutboxService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -125,8 +133,11 @@ class AuthenticationServiceTest {
         User user = new User();
         user.setRut("12345678-5");
         user.setUsername("testuser");
+        user.setPassword("storedHash");
 
-        when(userRepository.findByRut(request.rut())).thenReturn(Optional.of(user));
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(request.password(), "storedHash")).thenReturn(true);
+        when(passwordHashingService.needsRehash("storedHash")).thenReturn(false);
         when(jwtService.generateAccessToken(user)).thenReturn("accessToken");
         when(jwtService.generateRefreshToken(user)).thenReturn("refreshToken");
 
@@ -137,19 +148,107 @@ class AuthenticationServiceTest {
         assertEquals("refreshToken", response.get("refreshToken"));
         assertEquals("testuser", response.get("username"));
 
-        verify(authenticationManager).authenticate(new UsernamePasswordAuthenticationToken(request.rut(), request.password()));
-        verify(userRepository).findByRut(request.rut());
+        verify(userRepository).findByRutWithRoles(request.rut());
+        verify(userRepository, never()).findByRut(any());
+        verify(userRepository, never()).save(any(User.class));
         verify(jwtService).generateAccessToken(user);
         verify(jwtService).generateRefreshToken(user);
     }
 
+    @Test
+    void testLoginRehashesOutdatedPassword() {
+        LoginRequestDTO request = new LoginRequestDTO("12345678-5", "password123");
+        User user = new User();
+        user.setRut("12345678-5");
+        user.setPassword("weakHash");
+
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(request.password(), "weakHash")).thenReturn(true);
+        when(passwordHashingService.needsRehash("weakHash")).thenReturn(true);
+        when(passwordHashingService.encode(request.password())).thenReturn("strongHash");
+
+        authenticationService.login(request);
+
+        assertEquals("strongHash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void testLoginSkipsRehashWhenSaturated() {
+        LoginRequestDTO request = new LoginRequestDTO("12345678-5", "password123");
+        User user = new User();
+        user.setRut("12345678-5");
+        user.setPassword("weakHash");
+
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(request.password(), "weakHash")).thenReturn(true);
+        when(passwordHashingService.needsRehash("weakHash")).thenReturn(true);
+        when(passwordHashingService.encode(request.password()))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS));
+        when(jwtService.generateAccessToken(user)).thenReturn("accessToken");
+        when(jwtService.generateRefreshToken(user)).thenReturn("refreshToken");
+
+        Map<String, String> result = authenticationService.login(request);
+
+        assertEquals("accessToken", result.get("accessToken"));
+        assertEquals("weakHash", user.getPassword());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testRecoverPasswordSaturated() {
+        RecoveryRequestDTO request = new RecoveryRequestDTO("12345678-5", "987654321");
+        User user = new User();
+        user.setRut("12345678-5");
+        user.setNumber(987654321);
+
+        when(userRepository.findByRut(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.encode(anyString()))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> authenticationService.recoverPassword(request));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatusCode());
+        verify(smsOutboxService, never()).enqueuePasswordRecovery(any(), any());
+    }
+
     @Test
     void testLoginInvalidCredentials() {
         LoginRequestDTO request = new LoginRequestDTO("12345678-5", "wrongpassword");
-        when(authenticationManager.authenticate(any())).thenThrow(new ResponseStatusException(org.springframework.http.HttpStatus.UNAUTHORIZED));
+        User user = new User();
+        user.setPassword("storedHash");
+
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(request.password(), "storedHash")).thenReturn(false);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> authenticationService.login(request));
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
+        verify(jwtService, never()).generateAccessToken(any());
+    }
+
+    @Test
+    void testLoginUnknownRutStillChecksPassword() {
+        LoginRequestDTO request = new LoginRequestDTO("11111111-1", "password123");
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.empty());
 
         assertThrows(ResponseStatusException.class, () -> authenticationService.login(request));
-        verify(userRepository, never()).findByRut(any());
+        verify(passwordHashingService).matches(request.password(), null);
+    }
+
+    @Test
+    void testLoginSaturated() {
+        LoginRequestDTO request = new LoginRequestDTO("12345678-5", "password123");
+        User user = new User();
+        user.setPassword("storedHash");
+
+        when(userRepository.findByRutWithRoles(request.rut())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(request.password(), "storedHash"))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> authenticationService.login(request));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatusCode());
     }
 
     @Test
@@ -159,8 +258,10 @@ class AuthenticationServiceTest {
         User user = new User();
         user.setId(userId);
 
+        JwtPrincipal principal = new JwtPrincipal(userId, null, List.of(), UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600));
         when(jwtService.isRefreshTokenValid(refreshToken)).thenReturn(true);
-        when(jwtService.extractUserId(refreshToken)).thenReturn(userId);
+        when(jwtService.verify(refreshToken)).thenReturn(principal);
         when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(jwtService.generateAccessToken(user)).thenReturn("newAccessToken");
 
@@ -170,7 +271,8 @@ class AuthenticationServiceTest {
         assertEquals("newAccessToken", response.get("accessToken"));
 
         verify(jwtService).isRefreshTokenValid(refreshToken);
-        verify(jwtService).extractUserId(refreshToken);
+        verify(jwtService).verify(refreshToken);
+        verify(tokenRevocationService).isRevoked(principal);
         verify(userRepository).getReferenceById(userId);
         verify(jwtService).generateAccessToken(user);
     }
@@ -181,7 +283,39 @@ class AuthenticationServiceTest {
         when(jwtService.isRefreshTokenValid(refreshToken)).thenReturn(false);
 
         assertThrows(ResponseStatusException.class, () -> authenticationService.refreshToken(refreshToken));
-        verify(jwtService, times(0)).extractUserId(any());
+        verify(jwtService, times(0)).verify(any());
+    }
+
+    @Test
+    void testRefreshTokenRevoked() {
+        String refreshToken = "revokedRefreshToken";
+        JwtPrincipal principal = new JwtPrincipal(UUID.randomUUID(), null, List.of(), UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600));
+
+        when(jwtService.isRefreshTokenValid(refreshToken)).thenReturn(true);
+        when(jwtService.verify(refreshToken)).thenReturn(principal);
+        when(tokenRevocationService.isRevoked(principal)).thenReturn(true);
+
+        assertThrows(ResponseStatusException.class, () -> authenticationService.refreshToken(refreshToken));
+        verify(jwtService, never()).generateAccessToken(any());
+    }
+
+    @Test
+    void testLogoutRevokesAccessAndRefreshTokens() {
+        UUID userId = UUID.randomUUID();
+        JwtPrincipal access = new JwtPrincipal(userId, "user", List.of(), UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(900));
+        JwtPrincipal refresh = new JwtPrincipal(userId, null, List.of(), UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600));
+
+        when(jwtService.verify("access")).thenReturn(access);
+        when(jwtService.isRefreshTokenValid("refresh")).thenReturn(true);
+        when(jwtService.verify("refresh")).thenReturn(refresh);
+
+        authenticationService.logout("access", "refresh");
+
+        verify(tokenRevocationService).revoke(access);
+        verify(tokenRevocationService).revoke(refresh);
     }
 
     @Test
@@ -192,15 +326,15 @@ class AuthenticationServiceTest {
         user.setNumber(987654321);
 
         when(userRepository.findByRut(request.rut())).thenReturn(Optional.of(user));
-        when(passwordEncoder.encode(anyString())).thenReturn("encodedTempPassword");
-        when(twilioService.sendPasswordRecoverySms(anyString(), anyString())).thenReturn("smsSid");
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedTempPassword");
 
         authenticationService.recoverPassword(request);
 
         verify(userRepository).findByRut(request.rut());
-        verify(twilioService).sendPasswordRecoverySms(eq("+56" + request.phone()), anyString());
-        verify(passwordEncoder).encode(anyString());
+        verify(smsOutboxService).enqueuePasswordRecovery(eq("+56" + request.phone()), anyString());
+        verify(passwordHashingService).encode(anyString());
         verify(userRepository).save(user);
+        verify(tokenRevocationService).revokeAllForUser(user.getId());
         assertNotNull(user.getPassword()); // Check that password was set
     }
 
@@ -210,7 +344,7 @@ class AuthenticationServiceTest {
         when(userRepository.findByRut(request.rut())).thenReturn(Optional.empty());
 
         assertThrows(ResponseStatusException.class, () -> authenticationService.recoverPassword(request));
-        verify(twilioService, never()).sendPasswordRecoverySms(any(),any());
+        verify(smsOutboxService, never()).enqueuePasswordRecovery(any(), any());
     }
 
     @Test
@@ -223,20 +357,23 @@ class AuthenticationServiceTest {
         when(userRepository.findByRut(request.rut())).thenReturn(Optional.of(user));
 
         assertThrows(ResponseStatusException.class, () -> authenticationService.recoverPassword(request));
-         verify(twilioService, never()).sendPasswordRecoverySms(any(),any());
+         verify(smsOutboxService, never()).enqueuePasswordRecovery(any(), any());
     }
 
     @Test
-    void testRecoverPasswordTwilioError() {
+    void testRecoverPasswordOutboxError() {
         RecoveryRequestDTO request = new RecoveryRequestDTO("12345678-5", "987654321");
         User user = new User();
         user.setRut("12345678-5");
         user.setNumber(987654321);
 
         when(userRepository.findByRut(request.rut())).thenReturn(Optional.of(user));
-        when(twilioService.sendPasswordRecoverySms(anyString(), anyString())).thenThrow(new ResponseStatusException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, "Twilio Error"));
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedTempPassword");
+        when(smsOutboxService.enqueuePasswordRecovery(anyString(), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("Outbox unavailable"));
 
-        assertThrows(ResponseStatusException.class, () -> authenticationService.recoverPassword(request));
-        verify(userRepository, never()).save(any(User.class));
+        // The failure propagates so the password change rolls back with the outbox write
+        assertThrows(DataAccessResourceFailureException.class, () -> authenticationService.recoverPassword(request));
+        verify(tokenRevocationService, never()).revokeAllForUser(any());
     }
 }
@@ -0,0 +1,91 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.features.posts.model.Category;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryDictionaryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryDictionary categoryDictionary;
+
+    @BeforeEach
+    void setUp() {
+        categoryDictionary = new CategoryDictionary(categoryRepository, 1000);
+    }
+
+    @Test
+    void shouldResolveWarmedCategoriesWithoutQueries() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1, "deportes"), category(2, "cultura")));
+        categoryDictionary.reload();
+
+        // When
+        Map<String, Integer> result = categoryDictionary.resolve(Set.of(" Deportes ", "CULTURA"));
+
+        // Then
+        assertThat(result).containsEntry("deportes", 1).containsEntry("cultura", 2);
+        verify(categoryRepository).findAll();
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    void shouldInsertOnlyUnknownCategoriesInOneStatement() {
+        // Given
+        when(categoryRepository.findByNamesIgnoreCase(Set.of("ferias"))).thenReturn(Set.of());
+        when(categoryRepository.insertIgnoringExisting(new String[]{"ferias"}))
+                .thenReturn(List.of(category(7, "ferias")));
+
+        // When
+        Map<String, Integer> result = categoryDictionary.resolve(Set.of("Ferias"));
+
+        // Then
+        assertThat(result).containsExactlyEntriesOf(Map.of("ferias", 7));
+        assertThat(categoryDictionary.suggest("fer", 10)).containsExactly("ferias");
+    }
+
+    @Test
+    void shouldSuggestByPrefixInAlphabeticalOrder() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                category(1, "salud"), category(2, "seguridad"), category(3, "deportes"), category(4, "servicios")));
+        categoryDictionary.reload();
+
+        // When
+        List<String> suggestions = categoryDictionary.suggest("SE", 10);
+
+        // Then
+        assertThat(suggestions).containsExactly("seguridad", "servicios");
+    }
+
+    @Test
+    void shouldRejectCategoryNamesThatAreTooLong() {
+        assertThatThrownBy(() -> categoryDictionary.resolve(Set.of("a".repeat(21))))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("cannot exceed");
+    }
+
+    private Category category(int id, String name) {
+        return Category.builder().id(id).name(name).build();
+    }
+}
@@ -0,0 +1,101 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage.SignedUpload;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.SignedUploadDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.DirectUploadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DirectUploadServiceTest {
+
+    @Mock
+    private DirectUploadRepository directUploadRepository;
+
+    @Mock
+    private MediaStorage mediaStorage;
+
+    private DirectUploadService directUploadService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        directUploadService = new DirectUploadService(directUploadRepository, mediaStorage, 900);
+    }
+
+    @Test
+    void shouldIssueSlotsUnderTheUserFolder() {
+        // Given
+        when(mediaStorage.signUpload(anyString(), anyInt())).thenAnswer(invocation -> new SignedUpload(
+                "https://api.cloudinary.com/v1_1/demo/image/upload", "key", 1L, "signature",
+                invocation.getArgument(0), "jpg", "c_limit,h_1080,w_1080"));
+
+        // When
+        List<SignedUploadDTO> slots = directUploadService.issue(userId, 2);
+
+        // Then
+        assertThat(slots).hasSize(2);
+        assertThat(slots).allSatisfy(slot -> {
+            assertThat(slot.publicId()).startsWith("posts/" + userId + "/");
+            assertThat(slot.expiresAt()).isAfter(LocalDateTime.now().plusMinutes(14));
+        });
+        assertThat(slots.get(0).publicId()).isNotEqualTo(slots.get(1).publicId());
+        verify(directUploadRepository).saveAll(any());
+    }
+
+    @Test
+    void shouldRejectFinalizeWhenAnySlotIsNotClaimable() {
+        // Given
+        List<String> publicIds = List.of("posts/" + userId + "/a", "posts/other/b");
+        when(directUploadRepository.claim(eq(userId), eq(publicIds), any())).thenReturn(1);
+
+        // When & Then
+        assertThatThrownBy(() -> directUploadService.claim(userId, publicIds))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Unknown or expired upload");
+    }
+
+    @Test
+    void shouldRejectDuplicatePublicIdsBeforeQuerying() {
+        // Given
+        List<String> publicIds = List.of("posts/" + userId + "/a", "posts/" + userId + "/a");
+
+        // When & Then
+        assertThatThrownBy(() -> directUploadService.claim(userId, publicIds))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Duplicate image");
+        verify(directUploadRepository, never()).claim(any(), any(), any());
+    }
+
+    @Test
+    void shouldKeepExpiredSlotsUntilTheirSignatureHasLapsed() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        // When
+        LocalDateTime cutoff = directUploadService.cleanupCutoff(now);
+
+        // Then: slots live 15 minutes but signatures one hour, plus a minute of clock skew
+        assertThat(cutoff).isEqualTo(now.minusMinutes(46));
+    }
+}
@@ -0,0 +1,245 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.ImageCompressionService;
+import cl.metspherical.calbucofelizbackend.common.service.ImageModerationService;
+import cl.metspherical.calbucofelizbackend.common.service.MediaSpool;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.common.service.UploadBuffer;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.PostStatusDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.MediaJobStatus;
+import cl.metspherical.calbucofelizbackend.features.posts.enums.PostStatus;
+import cl.metspherical.calbucofelizbackend.features.posts.model.MediaJob;
+import cl.metspherical.calbucofelizbackend.features.posts.repository.MediaJobRepository;
+import cl.metspherical.calbucofelizbackend.features.posts.websocket.PostStatusWebSocketHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MediaJobWorkerTest {
+
+    @Mock
+    private MediaJobRepository mediaJobRepository;
+
+    @Mock
+    private MediaSpool mediaSpool;
+
+    @Mock
+    private ImageModerationService imageModerationService;
+
+    @Mock
+    private ImageCompressionService imageCompressionService;
+
+    @Mock
+    private MediaStorage mediaStorage;
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private PostStatusWebSocketHandler postStatusWebSocketHandler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MediaJobWorker mediaJobWorker;
+
+    private final UUID jobId = UUID.randomUUID();
+    private final UUID postId = UUID.randomUUID();
+    private final UUID authorId = UUID.randomUUID();
+    private final List<UploadBuffer> images = List.of(UploadBuffer.of(new byte[]{1, 2, 3}, "photo.jpg", "image/jpeg"));
+
+    @BeforeEach
+    void setUp() {
+        mediaJobWorker = new MediaJobWorker(mediaJobRepository, mediaSpool, imageModerationService,
+                imageCompressionService, mediaStorage, postService, postStatusWebSocketHandler,
+                transactionManager, 1, 3, 5000, 300000, 600000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mediaJobWorker.shutdown();
+    }
+
+    @Test
+    void shouldPublishPostAndNotifyAuthorWhenProcessingSucceeds() throws Exception {
+        // Given
+        MediaJob job = runningJob(1);
+        List<ProcessedImage> processedImages = List.of(ProcessedImage.of(new byte[]{4, 5, 6}));
+        when(mediaSpool.read(jobId)).thenReturn(images);
+        when(imageCompressionService.compressImages(images)).thenReturn(processedImages);
+        when(postService.publishPendingPost(postId, processedImages)).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        verify(imageModerationService).validateImages(images);
+        verify(mediaJobRepository).deleteById(jobId);
+        verify(mediaSpool).delete(jobId);
+        verify(postStatusWebSocketHandler).notifyAuthor(authorId,
+                new PostStatusDTO(postId, PostStatus.PUBLISHED, null));
+    }
+
+    @Test
+    void shouldRejectPostWithoutRetryingWhenModerationFails() throws Exception {
+        // Given
+        MediaJob job = runningJob(1);
+        when(mediaSpool.read(jobId)).thenReturn(images);
+        doThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Image contains inappropriate content and cannot be uploaded"))
+                .when(imageModerationService).validateImages(images);
+        when(postService.rejectPendingPost(postId)).thenReturn(true);
+        when(mediaJobRepository.existsById(jobId)).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        assertThat(job.getLastError()).isEqualTo("Image contains inappropriate content and cannot be uploaded");
+        verify(imageCompressionService, never()).compressImages(anyList());
+        verify(mediaJobRepository).save(job);
+        verify(mediaSpool).delete(jobId);
+        verify(postStatusWebSocketHandler).notifyAuthor(authorId, new PostStatusDTO(postId, PostStatus.REJECTED,
+                "Image contains inappropriate content and cannot be uploaded"));
+    }
+
+    @Test
+    void shouldRequeueWithBackoffWhenUploadFailsTransiently() throws Exception {
+        // Given
+        MediaJob job = runningJob(2);
+        List<ProcessedImage> processedImages = List.of(ProcessedImage.of(new byte[]{4, 5, 6}));
+        when(mediaSpool.read(jobId)).thenReturn(images);
+        when(imageCompressionService.compressImages(images)).thenReturn(processedImages);
+        when(postService.publishPendingPost(postId, processedImages)).thenThrow(
+                new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading image: timeout"));
+        when(mediaJobRepository.existsById(jobId)).thenReturn(true);
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        mediaJobWorker.run(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.QUEUED);
+        assertThat(job.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(10));
+        assertThat(job.getLockedUntil()).isNull();
+        verify(mediaJobRepository).save(job);
+        verify(postService, never()).rejectPendingPost(any());
+        verify(mediaSpool, never()).delete(any());
+    }
+
+    @Test
+    void shouldRejectPostWhenAttemptsRunOut() throws Exception {
+        // Given
+        MediaJob job = runningJob(3);
+        when(mediaSpool.read(jobId)).thenReturn(images);
+        when(imageCompressionService.compressImages(images)).thenThrow(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image processing is busy"));
+        when(postService.rejectPendingPost(postId)).thenReturn(true);
+        when(mediaJobRepository.existsById(jobId)).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        verify(postService).rejectPendingPost(postId);
+        verify(postStatusWebSocketHandler).notifyAuthor(authorId,
+                new PostStatusDTO(postId, PostStatus.REJECTED, "Images could not be processed"));
+    }
+
+    @Test
+    void shouldModerateStoredImagesAndPublishWithoutUploading() throws Exception {
+        // Given
+        MediaJob job = runningJob(1);
+        job.setPublicIds("posts/a,posts/b");
+        when(mediaStorage.fetchImage("posts/a", 1080)).thenReturn(new byte[]{1});
+        when(mediaStorage.fetchImage("posts/b", 1080)).thenReturn(new byte[]{2});
+        when(imageCompressionService.computePlaceholder(any())).thenReturn("LKO2?U%2Tw=w]~RBVZRi};RPxuwH");
+        when(postService.publishStoredPost(eq(postId), eq(List.of("posts/a", "posts/b")), anyList())).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        verify(imageModerationService).validateImages(anyList());
+        verify(imageCompressionService, never()).compressImages(anyList());
+        verify(postService, never()).publishPendingPost(any(), anyList());
+        verify(mediaJobRepository).deleteById(jobId);
+        verify(postStatusWebSocketHandler).notifyAuthor(authorId,
+                new PostStatusDTO(postId, PostStatus.PUBLISHED, null));
+    }
+
+    @Test
+    void shouldDeleteStoredImagesWhenRejectingDirectUpload() throws Exception {
+        // Given
+        MediaJob job = runningJob(1);
+        job.setPublicIds("posts/a");
+        when(mediaStorage.fetchImage("posts/a", 1080)).thenReturn(new byte[]{1});
+        doThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Image contains inappropriate content and cannot be uploaded"))
+                .when(imageModerationService).validateImages(anyList());
+        when(postService.rejectPendingPost(postId)).thenReturn(true);
+        when(mediaJobRepository.existsById(jobId)).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        verify(mediaStorage).deleteImage("posts/a");
+    }
+
+    @Test
+    void shouldRejectWithoutRetryingWhenStoredImageCannotBeDecoded() throws Exception {
+        // Given
+        MediaJob job = runningJob(1);
+        job.setPublicIds("posts/a");
+        when(mediaStorage.fetchImage("posts/a", 1080)).thenReturn(new byte[]{1});
+        when(imageCompressionService.computePlaceholder(any())).thenThrow(new IOException("Unable to read image file"));
+        when(postService.rejectPendingPost(postId)).thenReturn(true);
+        when(mediaJobRepository.existsById(jobId)).thenReturn(true);
+
+        // When
+        mediaJobWorker.run(job);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MediaJobStatus.FAILED);
+        assertThat(job.getLastError()).isEqualTo("Image could not be read");
+        verify(mediaStorage).deleteImage("posts/a");
+    }
+
+    private MediaJob runningJob(int attempts) {
+        return MediaJob.builder()
+                .id(jobId)
+                .postId(postId)
+                .authorId(authorId)
+                .status(MediaJobStatus.RUNNING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .lockedUntil(LocalDateTime.now().plusMinutes(10))
+                .build();
+    }
+}
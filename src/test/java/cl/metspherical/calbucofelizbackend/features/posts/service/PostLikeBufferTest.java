@@ -0,0 +1,152 @@
+package cl.metspherical.calbucofelizbackend.features.posts.service;
+
+import cl.metspherical.calbucofelizbackend.features.posts.repository.PostLikeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostLikeBufferTest {
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostLikeBuffer postLikeBuffer;
+
+    private final UUID postId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        postLikeBuffer = new PostLikeBuffer(postLikeRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void shouldCoalesceLikeFollowedByUnlike() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(postLikeRepository.existsByPost_IdAndUser_Id(postId, userId)).thenReturn(false);
+
+        // When
+        postLikeBuffer.like(postId, userId);
+        postLikeBuffer.unlike(postId, userId);
+        postLikeBuffer.flush();
+
+        // Then
+        assertThat(postLikeBuffer.pendingDelta(postId)).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void shouldExposeBufferedLikeToTheLikerBeforeFlush() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(postLikeRepository.existsByPost_IdAndUser_Id(postId, userId)).thenReturn(false);
+
+        // When
+        postLikeBuffer.like(postId, userId);
+
+        // Then
+        assertThat(postLikeBuffer.isLiked(postId, userId)).isTrue();
+        assertThat(postLikeBuffer.pendingDelta(postId)).isEqualTo(1);
+        assertThatThrownBy(() -> postLikeBuffer.like(postId, userId))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("already liked");
+        verify(postLikeRepository, times(1)).existsByPost_IdAndUser_Id(postId, userId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFlushLikesInOneBatchAndAdjustCounterByRowsWritten() {
+        // Given
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        when(postLikeRepository.existsByPost_IdAndUser_Id(eq(postId), any()))
+                .thenReturn(false);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO post_like"), anyList()))
+                .thenReturn(new int[]{1, 0});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE post SET like_count"), anyList()))
+                .thenReturn(new int[]{1});
+
+        postLikeBuffer.like(postId, firstUser);
+        postLikeBuffer.like(postId, secondUser);
+
+        // When
+        postLikeBuffer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> counterArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE post SET like_count"), counterArgs.capture());
+        assertThat(counterArgs.getValue()).hasSize(1);
+        assertThat(counterArgs.getValue().get(0)).containsExactly(1, postId);
+        assertThat(postLikeBuffer.pendingDelta(postId)).isZero();
+    }
+
+    @Test
+    void shouldRereadStoredStateWhenAFlushCommitsWhileReadingIt() {
+        // Given
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        when(postLikeRepository.existsByPost_IdAndUser_Id(postId, firstUser)).thenReturn(false);
+        postLikeBuffer.like(postId, firstUser);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO post_like"), anyList())).thenReturn(new int[]{1});
+        // The first read races with a flush of the same post, so its result may be stale
+        when(postLikeRepository.existsByPost_IdAndUser_Id(postId, secondUser))
+                .thenAnswer(invocation -> {
+                    postLikeBuffer.flush();
+                    return false;
+                })
+                .thenReturn(true);
+
+        // When / Then
+        assertThatThrownBy(() -> postLikeBuffer.like(postId, secondUser))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("already liked");
+        verify(postLikeRepository, times(2)).existsByPost_IdAndUser_Id(postId, secondUser);
+    }
+
+    @Test
+    void shouldRestoreTogglesOnceWhenCommitFails() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(postLikeRepository.existsByPost_IdAndUser_Id(postId, userId)).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO post_like"), anyList())).thenReturn(new int[]{1});
+        doThrow(new CannotCreateTransactionException("connection lost")).when(transactionManager).commit(any());
+        postLikeBuffer.like(postId, userId);
+
+        // When
+        postLikeBuffer.flush();
+
+        // Then
+        assertThat(postLikeBuffer.pendingDelta(postId)).isEqualTo(1);
+        assertThat(postLikeBuffer.isLiked(postId, userId)).isTrue();
+    }
+}
@@ -1,17 +1,48 @@
 package cl.metspherical.calbucofelizbackend.features.posts.service;
 
+import cl.metspherical.calbucofelizbackend.common.domain.User;
+import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage;
+import cl.metspherical.calbucofelizbackend.common.service.MediaStorage.UploadedImage;
+import cl.metspherical.calbucofelizbackend.common.service.MediaFingerprintCache;
+import cl.metspherical.calbucofelizbackend.common.service.ProcessedImage;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.CreatePostRequestDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.PostDetailDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.dto.PostFeedResponseDTO;
+import cl.metspherical.calbucofelizbackend.features.posts.model.Category;
+import cl.metspherical.calbucofelizbackend.features.posts.model.Post;
 import cl.metspherical.calbucofelizbackend.features.posts.repository.PostRepository;
+import cl.metspherical.calbucofelizbackend.features.posts.utils.FeedCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +51,24 @@ class PostServiceTest {
     @Mock
     private PostRepository postRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    @Mock
+    private PostLikeBuffer postLikeBuffer;
+
+    @Mock
+    private MediaStorage mediaStorage;
+
+    @Mock
+    private MediaFingerprintCache mediaFingerprintCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private PostService postService;
 
@@ -46,4 +95,173 @@ class PostServiceTest {
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("Post not found");
     }
+
+    @Test
+    void shouldReturnFirstFeedPageWithNextCursorInIdOrder() {
+        // Given
+        Post newest = createPost(LocalDateTime.of(2025, 6, 3, 10, 0));
+        Post middle = createPost(LocalDateTime.of(2025, 6, 2, 10, 0));
+        Post oldest = createPost(LocalDateTime.of(2025, 6, 1, 10, 0));
+        List<UUID> ids = List.of(newest.getId(), middle.getId(), oldest.getId());
+
+        when(postRepository.findPostIds("", "", PageRequest.of(0, 3)))
+                .thenReturn(new SliceImpl<>(ids));
+        when(postRepository.findAllWithDetailsByIdIn(List.of(newest.getId(), middle.getId())))
+                .thenReturn(List.of(middle, newest));
+
+        // When
+        PostFeedResponseDTO result = postService.getPostsFeed(null, 2, null, null);
+
+        // Then
+        assertThat(result.posts()).extracting(PostDetailDTO::id).containsExactly(newest.getId(), middle.getId());
+        assertThat(result.hasNext()).isTrue();
+        assertThat(FeedCursor.decode(result.nextCursor()))
+                .isEqualTo(new FeedCursor(middle.getCreatedAt(), middle.getId()));
+    }
+
+    @Test
+    void shouldContinueFeedFromCursor() {
+        // Given
+        Post oldest = createPost(LocalDateTime.of(2025, 6, 1, 10, 0));
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2025, 6, 2, 10, 0), UUID.randomUUID());
+
+        when(postRepository.findPostIdsBefore("news", "", cursor.createdAt(), cursor.id(), Limit.of(3)))
+                .thenReturn(List.of(oldest.getId()));
+        when(postRepository.findAllWithDetailsByIdIn(List.of(oldest.getId())))
+                .thenReturn(List.of(oldest));
+
+        // When
+        PostFeedResponseDTO result = postService.getPostsFeed(cursor.encode(), 2, " news ", null);
+
+        // Then
+        assertThat(result.posts()).hasSize(1);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectMalformedFeedCursor() {
+        assertThatThrownBy(() -> postService.getPostsFeed("not-a-cursor", 10, null, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void shouldLinkResolvedCategoriesWithoutLoadingThem() {
+        // Given
+        UUID postId = UUID.randomUUID();
+        when(categoryDictionary.resolve(Set.of("Deportes"))).thenReturn(Map.of("deportes", 1));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> {
+            Post post = invocation.getArgument(0);
+            post.setId(postId);
+            return post;
+        });
+
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                UUID.randomUUID(), "content", Set.of("Deportes"), List.of());
+
+        // When
+        UUID result = postService.createPost(request);
+
+        // Then
+        ArgumentCaptor<Post> saved = ArgumentCaptor.forClass(Post.class);
+        verify(postRepository).save(saved.capture());
+        verifyNoMoreInteractions(postRepository);
+        assertThat(result).isEqualTo(postId);
+        assertThat(saved.getValue().getCategories())
+                .extracting(Category::getId, Category::getName)
+                .containsExactly(tuple(1, "deportes"));
+    }
+
+    @Test
+    void shouldRejectInvalidCategoryBeforeUploadingImages() {
+        // Given
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                UUID.randomUUID(), "content", Set.of("a-category-name-that-is-too-long"),
+                List.of(ProcessedImage.of(new byte[]{1, 2, 3})));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.createPost(request))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Category name cannot exceed");
+        verifyNoInteractions(mediaStorage, mediaFingerprintCache, transactionTemplate);
+    }
+
+    @Test
+    void shouldDeleteUploadedImagesWhenAnotherUploadFails() throws IOException {
+        // Given
+        byte[] firstImage = {1, 2, 3};
+        byte[] secondImage = {4, 5, 6};
+        when(mediaStorage.uploadImageAsset(firstImage))
+                .thenReturn(new UploadedImage("first-id", "https://cdn/first.jpg"));
+        when(mediaStorage.uploadImageAsset(secondImage))
+                .thenThrow(new IOException("Cloudinary unavailable"));
+
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                UUID.randomUUID(), "content", null, List.of(ProcessedImage.of(firstImage), ProcessedImage.of(secondImage)));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.createPost(request))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Error uploading image");
+        verify(mediaStorage).deleteImage("first-id");
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void shouldDeleteUploadedImagesWhenPostTransactionFails() throws IOException {
+        // Given
+        byte[] image = {1, 2, 3};
+        when(mediaStorage.uploadImageAsset(image))
+                .thenReturn(new UploadedImage("image-id", "https://cdn/image.jpg"));
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("Database down"));
+
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                UUID.randomUUID(), "content", null, List.of(ProcessedImage.of(image)));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.createPost(request))
+                .isInstanceOf(IllegalStateException.class);
+        verify(mediaStorage).deleteImage("image-id");
+    }
+
+    @Test
+    void shouldReuseKnownImageWithoutUploadingOrDeletingIt() throws IOException {
+        // Given
+        byte[] knownImage = {1, 2, 3};
+        byte[] newImage = {4, 5, 6};
+        String knownHash = MediaFingerprintCache.sha256(knownImage);
+        when(mediaFingerprintCache.findUrls(any()))
+                .thenReturn(Map.of(knownHash, "https://cdn/known.jpg"));
+        when(mediaStorage.uploadImageAsset(newImage))
+                .thenReturn(new UploadedImage("new-id", "https://cdn/new.jpg"));
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("Database down"));
+
+        CreatePostRequestDTO request = new CreatePostRequestDTO(
+                UUID.randomUUID(), "content", null, List.of(ProcessedImage.of(knownImage), ProcessedImage.of(newImage)));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.createPost(request))
+                .isInstanceOf(IllegalStateException.class);
+        verify(mediaStorage, never()).uploadImageAsset(knownImage);
+        verify(mediaStorage).deleteImage("new-id");
+        verify(mediaStorage, never()).deleteImage(null);
+        verify(mediaFingerprintCache, never()).rememberUrl(any(), any());
+    }
+
+    private Post createPost(LocalDateTime createdAt) {
+        User author = new User();
+        author.setId(UUID.randomUUID());
+        author.setUsername("author");
+        author.setRoles(new HashSet<>());
+
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .content("content")
+                .createdAt(createdAt)
+                .author(author)
+                .build();
+    }
 }
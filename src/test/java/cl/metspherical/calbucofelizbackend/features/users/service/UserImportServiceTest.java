@@ -0,0 +1,171 @@
+package cl.metspherical.calbucofelizbackend.features.users.service;
+
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserImportErrorDTO;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserImportResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final String HEADER = "rut,names,lastnames,number,address,password";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    @Test
+    void shouldReportInvalidRowsWithoutAbortingTheImport() throws IOException {
+        // Given
+        UserImportService userImportService = service(500);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO users"), anyList())).thenReturn(new int[]{1});
+        String csv = String.join("\n",
+                HEADER,
+                "11111111-1,Ana,Soto,912345678,Calle 1,secret",
+                "11111111-2,Luis,Perez,987654321,Calle 2,secret",
+                "22222222-2,Rosa,Diaz,123,Calle 3,secret",
+                "11111111-1,Ana,Soto,923456789,Calle 1,secret",
+                "\"12345678-5,Unclosed");
+
+        // When
+        UserImportResultDTO result = userImportService.importUsers(stream(csv), UserImportService.Format.CSV);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).extracting(UserImportErrorDTO::line).containsExactly(3, 4, 5, 6);
+        assertThat(result.errors().get(2).message()).isEqualTo("Duplicate RUT in file");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldInsertValidRowsInBatchesWithHashedPasswords() throws IOException {
+        // Given
+        UserImportService userImportService = service(2);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO users"), anyList()))
+                .thenReturn(new int[]{1, 1}, new int[]{1});
+        String csv = String.join("\n",
+                HEADER,
+                "11111111-1,Ana,Soto,912345678,Calle 1,secret",
+                "22222222-2,Luis,Perez,987654321,Calle 2,secret",
+                "12345678-5,Rosa,Diaz,923456789,Calle 3,");
+
+        // When
+        UserImportResultDTO result = userImportService.importUsers(stream(csv), UserImportService.Format.CSV);
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO users"), batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+
+        Object[] first = batches.getAllValues().get(0).get(0);
+        assertThat(first[1]).isEqualTo("11111111-1");
+        assertThat(first[2]).isEqualTo(912345678);
+        assertThat(first[3]).isEqualTo("AnaSoto");
+        assertThat(passwordEncoder.matches("secret", (String) first[6])).isTrue();
+
+        Object[] withoutPassword = batches.getAllValues().get(1).get(0);
+        assertThat((String) withoutPassword[6]).startsWith("$2a$");
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).isEmpty();
+    }
+
+    @Test
+    void shouldReportResidentsAlreadyRegistered() throws IOException {
+        // Given
+        UserImportService userImportService = service(500);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO users"), anyList())).thenReturn(new int[]{1, 0});
+        String ndjson = String.join("\n",
+                "{\"rut\":\"11111111-1\",\"names\":\"Ana\",\"lastnames\":\"Soto\",\"number\":\"912345678\",\"address\":\"Calle 1\"}",
+                "{\"rut\":\"22222222-2\",\"names\":\"Luis\",\"lastnames\":\"Perez\",\"number\":\"987654321\",\"address\":\"Calle 2\"}",
+                "{not json");
+
+        // When
+        UserImportResultDTO result = userImportService.importUsers(stream(ndjson), UserImportService.Format.NDJSON);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(
+                new UserImportErrorDTO(3, null, "Malformed row"),
+                new UserImportErrorDTO(2, "22222222-2", "A user with this RUT or phone number is already registered"));
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns() {
+        // Given
+        UserImportService userImportService = service(500);
+
+        // When / Then
+        assertThatThrownBy(() -> userImportService.importUsers(stream("rut,names\n11111111-1,Ana"), UserImportService.Format.CSV))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT INTO users"), anyList());
+    }
+
+    @Test
+    void shouldRejectAnImportWhileAnotherIsRunning() throws IOException {
+        // Given
+        UserImportService userImportService = service(500);
+        ResponseStatusException[] concurrent = new ResponseStatusException[1];
+        ByteArrayInputStream input = new ByteArrayInputStream((HEADER + "\n").getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (concurrent[0] == null) {
+                    try {
+                        userImportService.importUsers(stream(HEADER), UserImportService.Format.CSV);
+                    } catch (ResponseStatusException e) {
+                        concurrent[0] = e;
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        // When
+        UserImportResultDTO result = userImportService.importUsers(input, UserImportService.Format.CSV);
+
+        // Then
+        assertThat(concurrent[0]).isNotNull();
+        assertThat(concurrent[0].getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(result.rows()).isZero();
+    }
+
+    private UserImportService service(int batchSize) {
+        return new UserImportService(jdbcTemplate, transactionManager, passwordEncoder, new ObjectMapper(), batchSize, 2);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
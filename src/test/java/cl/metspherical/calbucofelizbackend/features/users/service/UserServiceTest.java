@@ -1,8 +1,8 @@
 package cl.metspherical.calbucofelizbackend.features.users.service;
 
-import cl.metspherical.calbucofelizbackend.common.domain.User;
 import cl.metspherical.calbucofelizbackend.common.repository.UserRepository;
 import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResponseDTO;
+import cl.metspherical.calbucofelizbackend.features.users.dto.UserSearchResultProjection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -10,10 +10,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
-import java.util.Set;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -55,7 +54,7 @@ class UserServiceTest {
     @Test
     void shouldReturnEmptyListWhenNoUsersFound() {
         // Given
-        when(userRepository.findUsersWithPostsAndLikesBySearchTerm("nonexistent")).thenReturn(List.of());
+        when(userRepository.searchUsersRanked("nonexistent", 20)).thenReturn(List.of());
 
         // When
         UserSearchResponseDTO result = userService.searchUsers("nonexistent");
@@ -68,7 +67,7 @@ class UserServiceTest {
     void shouldTrimSearchTermAndCallRepository() {
         // Given
         String searchTerm = "  john  ";
-        when(userRepository.findUsersWithPostsAndLikesBySearchTerm("john")).thenReturn(List.of());
+        when(userRepository.searchUsersRanked("john", 20)).thenReturn(List.of());
 
         // When
         UserSearchResponseDTO result = userService.searchUsers(searchTerm);
@@ -80,9 +79,8 @@ class UserServiceTest {
     @Test
     void shouldReturnUsersWhenFound() {
         // Given
-        User user = createMockUser("testuser", "avatar.jpg");
-        when(userRepository.findUsersWithPostsAndLikesBySearchTerm("test")).thenReturn(List.of(user));
-        when(userRepository.countLikesByUserId(user.getId())).thenReturn(5);
+        UserSearchResultProjection user = createSearchResult("testuser", "avatar.jpg", 5, 2);
+        when(userRepository.searchUsersRanked("test", 20)).thenReturn(List.of(user));
 
         // When
         UserSearchResponseDTO result = userService.searchUsers("test");
@@ -91,14 +89,16 @@ class UserServiceTest {
         assertThat(result.users()).hasSize(1);
         assertThat(result.users().get(0).username()).isEqualTo("testuser");
         assertThat(result.users().get(0).avatar()).isEqualTo("avatar.jpg");
+        assertThat(result.users().get(0).likes()).isEqualTo(5);
+        assertThat(result.users().get(0).post()).isEqualTo(2);
     }
 
-    private User createMockUser(String username, String avatar) {
-        User user = new User();
-        user.setId(UUID.randomUUID());
-        user.setUsername(username);
-        user.setAvatar(avatar);
-        user.setPosts(Set.of()); // Empty posts
-        return user;
+    private UserSearchResultProjection createSearchResult(String username, String avatar, int likes, int posts) {
+        UserSearchResultProjection result = mock(UserSearchResultProjection.class);
+        when(result.getUsername()).thenReturn(username);
+        when(result.getAvatar()).thenReturn(avatar);
+        when(result.getTotalLikes()).thenReturn(likes);
+        when(result.getPostCount()).thenReturn(posts);
+        return result;
     }
 }
@@ -0,0 +1,36 @@
+package cl.metspherical.calbucofelizbackend.features.users.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvParserTest {
+
+    @Test
+    void shouldSplitPlainFields() {
+        // When
+        List<String> fields = CsvParser.parseLine("11111111-1,Ana,,Calle 1");
+
+        // Then
+        assertThat(fields).containsExactly("11111111-1", "Ana", "", "Calle 1");
+    }
+
+    @Test
+    void shouldUnquoteFieldsWithCommasAndEscapedQuotes() {
+        // When
+        List<String> fields = CsvParser.parseLine("\"Los Alerces 12, depto 3\",\"Pasaje \"\"El Faro\"\"\",x");
+
+        // Then
+        assertThat(fields).containsExactly("Los Alerces 12, depto 3", "Pasaje \"El Faro\"", "x");
+    }
+
+    @Test
+    void shouldRejectUnclosedQuotedField() {
+        // When / Then
+        assertThatThrownBy(() -> CsvParser.parseLine("\"unclosed,field"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}